@@ -0,0 +1,207 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of verified credentials.
+ *
+ * <p>Entries are keyed by user name and hold a HMAC of the credentials, using a random per process key,
+ * so plain passwords are never kept in memory.</p>
+ */
+@Component
+public class AuthCache implements MeterBinder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${app.config.auth.cache.size:10000}")
+    private long maxSize;
+
+    @Value("${app.config.auth.cache.ttl:300}")
+    private long ttl;
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> mac;
+
+    private final AtomicLong stamp = new AtomicLong();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private Cache<String, Credential> cache;
+
+    public AuthCache() {
+        byte[] salt = new byte[32];
+        new SecureRandom().nextBytes(salt);
+        key = new SecretKeySpec(salt, ALGORITHM);
+        mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (maxSize < 0) {
+            maxSize = 10000;
+        }
+
+        if (ttl <= 0) {
+            ttl = 300;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Salted digest for access credentials
+     *
+     * @param name     {@link String} user name
+     * @param password {@link String} plain password
+     * @return digest bytes
+     */
+    public byte[] digest(String name, String password) {
+        Mac instance = mac.get();
+        instance.update(name.getBytes(StandardCharsets.UTF_8));
+        instance.update((byte) 0);
+        return instance.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Current invalidation stamp, to be taken before any datastore lookup
+     *
+     * @return stamp value
+     * @see #put(String, byte[], User, long)
+     */
+    public long stamp() {
+        return stamp.get();
+    }
+
+    /**
+     * Lookup verified credentials
+     *
+     * @param name   {@link String} user name
+     * @param digest credentials digest
+     * @return {@link Optional<User>} cached user, empty if not cached or credentials not match
+     */
+    public Optional<User> get(String name, byte[] digest) {
+        Credential credential = cache.getIfPresent(name);
+        if (credential == null || !MessageDigest.isEqual(credential.digest, digest)) {
+            return Optional.empty();
+        }
+        return Optional.of(credential.user);
+    }
+
+    /**
+     * Cache verified credentials.
+     * <p>
+     * Skipped if any invalidation happened after the stamp was taken, so a lookup racing with an update
+     * never caches stale credentials
+     *
+     * @param name   {@link String} user name
+     * @param digest credentials digest
+     * @param user   {@link User} verified user
+     * @param since  stamp taken before the lookup
+     */
+    public void put(String name, byte[] digest, User user, long since) {
+        // Keep only what authorization needs
+        User entry = new User();
+        entry.setId(user.getId());
+        entry.setName(user.getName());
+        entry.setProfile(user.getProfile());
+
+        cache.put(name, new Credential(digest, entry));
+        if (stamp.get() != since) {
+            cache.invalidate(name);
+        }
+    }
+
+    /**
+     * Evict user credentials
+     *
+     * @param name {@link String} user name
+     */
+    public void evict(String name) {
+        stamp.incrementAndGet();
+        cache.invalidate(name);
+        invalidations.increment();
+    }
+
+    /**
+     * Drop credentials of changed users
+     *
+     * @param event {@link UserEvent}
+     */
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (event.getType() != UserEvent.Type.CREATED) {
+            evict(event.getName());
+        }
+    }
+
+    /**
+     * Evict all credentials
+     */
+    public void clear() {
+        stamp.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "auth");
+        FunctionCounter.builder("auth.cache.invalidations", invalidations, LongAdder::doubleValue)
+                .description("Credentials evicted due user changes")
+                .register(registry);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Cached credential entry
+     */
+    private static final class Credential {
+
+        private final byte[] digest;
+
+        private final User user;
+
+        private Credential(byte[] digest, User user) {
+            this.digest = digest;
+            this.user = user;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.LoginThrottledException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Custom authentication entry point for Spring Security.
+ *
+ * <p>Same as Basic auth entry point, but reports saturation of authentication resources as
+ * 503 (Service Unavailable) and throttled logins as 429 (Too Many Requests) instead of 401 (Unauthorized).</p>
+ */
+@Component
+public class AuthEntryPoint extends BasicAuthenticationEntryPoint {
+
+    public AuthEntryPoint() {
+        setRealmName("Realm");
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException, ServletException {
+        if (authException instanceof LoginThrottledException) {
+            long retryAfter = ((LoginThrottledException) authException).getRetryAfter();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+            return;
+        }
+        if (isSaturation(authException)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+            return;
+        }
+        super.commence(request, response, authException);
+    }
+
+    private boolean isSaturation(Throwable throwable) {
+        while (throwable != null) {
+            if (throwable instanceof RejectedExecutionException) {
+                return true;
+            }
+            throwable = throwable.getCause();
+        }
+        return false;
+    }
+}
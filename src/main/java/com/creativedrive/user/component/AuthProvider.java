@@ -1,5 +1,6 @@
 package com.creativedrive.user.component;
 
+import com.creativedrive.user.domain.LoginThrottledException;
 import com.creativedrive.user.domain.User;
 import com.creativedrive.user.service.LoginService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,10 +10,12 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 /**
  * Custom authentication for Spring Security, based on user datastore
@@ -23,6 +26,9 @@ public class AuthProvider implements AuthenticationProvider {
     @Autowired
     private LoginService loginService;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     @Override
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
@@ -45,25 +51,42 @@ public class AuthProvider implements AuthenticationProvider {
     }
 
 
+    protected String getAddress(final Authentication authentication) {
+        if (authentication.getDetails() instanceof WebAuthenticationDetails) {
+            return ((WebAuthenticationDetails) authentication.getDetails()).getRemoteAddress();
+        }
+        return null;
+    }
+
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String username = getLogin(authentication);
         String password = getPassword(authentication);
+        String address = getAddress(authentication);
+
+        // Reject before any hashing or datastore access
+        if (loginThrottle.isBlocked(username, address)) {
+            throw new LoginThrottledException("too many failed attempts", loginThrottle.getWindow());
+        }
 
         try {
             Optional<User> user = loginService.checkAuth(username, password);
             if(user.isPresent()){
                 // Granted
+                loginThrottle.reset(username);
                 String auth = user.get().getProfile();
                 return new UsernamePasswordAuthenticationToken(username, password,
                         AuthorityUtils.createAuthorityList(auth));
 
             } else {
                 // Denied
+                loginThrottle.recordFailure(username, address);
                 return null;
             }
+        } catch (CompletionException e) {
+            throw new AuthenticationServiceException(e.getCause().getMessage(), e.getCause());
         } catch (Exception e) {
-            throw new AuthenticationServiceException(e.getMessage());
+            throw new AuthenticationServiceException(e.getMessage(), e);
         }
     }
 }
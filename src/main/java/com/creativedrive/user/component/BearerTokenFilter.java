@@ -0,0 +1,72 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.AccessToken;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.service.TokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Spring Security filter for bearer access tokens.
+ *
+ * <p>Authentication is built from the token itself, without {@link com.creativedrive.user.service.LoginService}
+ * or datastore access. Requests without bearer tokens go through untouched.</p>
+ *
+ * @see TokenService
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = AccessToken.TYPE + " ";
+
+    private final TokenService tokenService;
+
+    public BearerTokenFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(PREFIX)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<User> user = tokenService.verify(header.substring(PREFIX.length()).trim());
+        if (!user.isPresent()) {
+            // Denied
+            SecurityContextHolder.clearContext();
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, AccessToken.TYPE + " error=\"invalid_token\"");
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED.getReasonPhrase());
+            return;
+        }
+
+        // Granted (token is not exchangeable)
+        BearerAuthentication authentication = new BearerAuthentication(user.get().getName(),
+                user.get().getProfile());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Authentication granted by a bearer access token
+     */
+    public static final class BearerAuthentication extends UsernamePasswordAuthenticationToken {
+
+        private BearerAuthentication(String name, String profile) {
+            super(name, null, AuthorityUtils.createAuthorityList(profile));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.persistence.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User cache warm up across restarts.
+ *
+ * <p>On shutdown the hottest user names, with their access frequencies, are written to a local snapshot file.
+ * On startup they are fetched in batches (one {@code $in} query each) and preloaded into {@link UserCache},
+ * hottest first. Health is reported as out of service until warm up finishes or its time budget is exhausted.</p>
+ *
+ * <p>Snapshot format is a magic header followed by records of 2 bytes name length, UTF-8 name and 8 bytes
+ * frequency. Records can be appended (repeated names add up) and a truncated tail is ignored.</p>
+ */
+@Component
+public class CacheWarmer implements SmartLifecycle, HealthIndicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private static final byte[] MAGIC = {'U', 'C', 'S', '1'};
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Value("${app.config.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.config.warmup.file:user-cache.snapshot}")
+    private String file;
+
+    @Value("${app.config.warmup.size:1000}")
+    private int size;
+
+    @Value("${app.config.warmup.batch:200}")
+    private int batch;
+
+    @Value("${app.config.warmup.budget:10000}")
+    private long budget;
+
+    private volatile boolean running;
+
+    private volatile boolean warming;
+
+    private volatile long deadline;
+
+    private volatile int loaded;
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+
+        /*
+           Avoid misconfiguration
+        */
+        if (size <= 0) {
+            size = 1000;
+        }
+
+        if (batch <= 0) {
+            batch = 200;
+        }
+
+        if (budget <= 0) {
+            budget = 10000;
+        }
+
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        deadline = System.currentTimeMillis() + budget;
+        warming = true;
+        Thread warmer = new Thread(() -> warmUp(path), "WARMUP-");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        warming = false;
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            write(Paths.get(file), userCache.hottest(size));
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write cache snapshot: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warming && System.currentTimeMillis() < deadline ? Health.outOfService() : Health.up();
+        return builder.withDetail("loaded", loaded).build();
+    }
+
+    private void warmUp(Path path) {
+        try {
+            List<String> names = new ArrayList<>(read(path).keySet());
+            for (int from = 0; from < names.size() && from < size && running; from += batch) {
+                if (System.currentTimeMillis() >= deadline) {
+                    LOGGER.warn("Cache warm up budget exhausted, loaded " + loaded + " users");
+                    return;
+                }
+
+                long since = userCache.stamp();
+                List<User> users = userRepo.findByNameIn(names.subList(from, Math.min(names.size(), from + batch)));
+                userCache.preload(users, since);
+                loaded += users.size();
+            }
+            LOGGER.info("Cache warm up loaded " + loaded + " users");
+        } catch (IOException | DataAccessException e) {
+            LOGGER.warn("Cache warm up failed: " + e.getMessage());
+        } finally {
+            warming = false;
+        }
+    }
+
+    /**
+     * Write snapshot file, replacing the current one
+     *
+     * @param path        {@link Path} snapshot file
+     * @param frequencies {@link Map} of user names to access frequencies
+     * @throws IOException on write failure
+     */
+    static void write(Path path, Map<String, Long> frequencies) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.write(MAGIC);
+            for (Map.Entry<String, Long> entry : frequencies.entrySet()) {
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                if (name.length > 0xFFFF) {
+                    continue;
+                }
+                out.writeShort(name.length);
+                out.write(name);
+                out.writeLong(entry.getValue());
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read snapshot file
+     *
+     * @param path {@link Path} snapshot file
+     * @return {@link Map} of user names to access frequencies, hottest first
+     * @throws IOException on read failure or unknown format
+     */
+    static Map<String, Long> read(Path path) throws IOException {
+        Map<String, Long> frequencies = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Unknown snapshot format");
+            }
+
+            while (true) {
+                byte[] name = new byte[in.readUnsignedShort()];
+                in.readFully(name);
+                frequencies.merge(new String(name, StandardCharsets.UTF_8), in.readLong(), Long::sum);
+            }
+        } catch (EOFException e) {
+            // End of records, or truncated tail
+        }
+
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        frequencies.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEachOrdered(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+}
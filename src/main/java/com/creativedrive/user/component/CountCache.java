@@ -0,0 +1,93 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.persistence.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of user counts by query criteria, for estimated search totals.
+ *
+ * <p>Counts older than the refresh interval are still served while a background count replaces them, so only the
+ * first search of a given criteria waits for a count. Unused criteria expire.</p>
+ */
+@Component
+public class CountCache implements MeterBinder {
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private TaskExecutor executor;
+
+    @Value("${app.config.count.cache.size:1000}")
+    private long maxSize;
+
+    @Value("${app.config.count.cache.refresh:30}")
+    private long refresh;
+
+    @Value("${app.config.count.cache.ttl:600}")
+    private long ttl;
+
+    // Keyed by criteria JSON, regular expressions have no equality
+    private LoadingCache<String, Long> cache;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (maxSize < 0) {
+            maxSize = 1000;
+        }
+
+        if (refresh <= 0) {
+            refresh = 30;
+        }
+
+        if (ttl < refresh) {
+            ttl = Math.max(600, refresh);
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refresh, TimeUnit.SECONDS)
+                .expireAfterAccess(ttl, TimeUnit.SECONDS)
+                .executor(executor)
+                .recordStats()
+                .build(criteria -> userRepo.countByQuery(new BasicQuery(criteria)));
+    }
+
+    /**
+     * Estimated number of users matching query criteria (sort and pagination are ignored)
+     *
+     * @param query {@link Query}
+     * @return number of users, as of last refresh
+     */
+    public long estimate(Query query) {
+        return cache.get(query.getQueryObject().toJson());
+    }
+
+    /**
+     * Invalidate all counts
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users.counts");
+    }
+}
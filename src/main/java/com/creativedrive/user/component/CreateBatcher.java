@@ -0,0 +1,251 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.BulkInsertException;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.persistence.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write combiner for single user creates (opt-in).
+ *
+ * <p>Creates arriving within a short linger window, or until the batch is full, are inserted together with a single
+ * unordered batch. Each caller gets its own result: the inserted user, a {@link DuplicateKeyException} if it was
+ * rejected by unique indexes, or the error that rejected it alone. A dedicated thread collects pending creates, batches are written on the task
+ * executor.</p>
+ */
+@Component
+public class CreateBatcher implements SmartLifecycle, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CreateBatcher.class);
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private TaskExecutor executor;
+
+    @Value("${app.config.create.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.config.create.batch.size:100}")
+    private int maxSize;
+
+    @Value("${app.config.create.batch.linger:2}")
+    private long linger;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private DistributionSummary sizes;
+
+    private Timer waits;
+
+    private Timer flushes;
+
+    private volatile boolean running;
+
+    private Thread collector;
+
+    /**
+     * Queue user to be inserted with the next batch
+     *
+     * @param user {@link User} entity to insert, with encrypted password
+     * @return {@link CompletableFuture<User>} inserted user, with its generated id
+     */
+    public CompletableFuture<User> insert(final User user) {
+        Pending pending = new Pending(user);
+        queue.add(pending);
+
+        // Stopped meanwhile, nobody will flush it
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("Create batcher stopped"));
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        /*
+           Avoid misconfiguration
+        */
+        if (maxSize > 10000 || maxSize <= 0) {
+            maxSize = 100;
+        }
+
+        if (linger < 0) {
+            linger = 2;
+        }
+
+        running = true;
+        collector = new Thread(this::collect, "BATCH-collector");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (collector != null) {
+            collector.interrupt();
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        sizes = DistributionSummary.builder("users.create.batch.size")
+                .description("Users inserted by create batch")
+                .register(registry);
+        waits = Timer.builder("users.create.batch.linger")
+                .description("Time creates wait for their batch")
+                .register(registry);
+        flushes = Timer.builder("users.create.batch.flush")
+                .description("Create batch insert latency")
+                .register(registry);
+        Gauge.builder("users.create.batch.pending", queue, BlockingQueue::size)
+                .description("Creates waiting for a batch")
+                .register(registry);
+    }
+
+    private void collect() {
+        while (running) {
+            List<Pending> batch = new ArrayList<>(maxSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(linger);
+                while (batch.size() < maxSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(batch, new RejectedExecutionException("Create batcher stopped"));
+                break;
+            }
+
+            try {
+                executor.execute(() -> flush(batch));
+            } catch (RejectedExecutionException e) {
+                reject(batch, e);
+            }
+        }
+
+        // Nobody will flush them
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        reject(left, new RejectedExecutionException("Create batcher stopped"));
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        if (waits != null) {
+            batch.forEach(pending -> waits.record(start - pending.queued, TimeUnit.NANOSECONDS));
+        }
+
+        Set<Integer> duplicates;
+        Map<Integer, DataAccessException> failures = Collections.emptyMap();
+        try {
+            duplicates = userRepo.insertUnordered(batch.stream().map(pending -> pending.user)
+                    .collect(Collectors.toList()));
+        } catch (BulkInsertException e) {
+            // Some users rejected, the others inserted
+            LOGGER.error("Create batch partially failed: " + e.getMessage());
+            duplicates = e.getDuplicates();
+            failures = e.getFailures();
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to insert create batch: " + e.getMessage());
+            reject(batch, e);
+            return;
+        } finally {
+            if (flushes != null) {
+                flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (sizes != null) {
+            sizes.record(batch.size());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            if (duplicates.contains(i)) {
+                pending.future.completeExceptionally(
+                        new DuplicateKeyException("Duplicated user: " + pending.user.getName()));
+            } else if (failures.containsKey(i)) {
+                pending.future.completeExceptionally(failures.get(i));
+            } else {
+                pending.future.complete(pending.user);
+            }
+        }
+    }
+
+    private static void reject(List<Pending> batch, Throwable cause) {
+        batch.forEach(pending -> pending.future.completeExceptionally(cause));
+    }
+
+    /**
+     * Create waiting for its batch
+     */
+    private static final class Pending {
+
+        private final User user;
+
+        private final long queued = System.nanoTime();
+
+        private final CompletableFuture<User> future = new CompletableFuture<>();
+
+        private Pending(User user) {
+            this.user = user;
+        }
+    }
+}
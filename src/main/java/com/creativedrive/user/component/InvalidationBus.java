@@ -0,0 +1,266 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.UserEvent;
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cross node invalidation bus.
+ *
+ * <p>Local {@link UserEvent} are published as compact records to a capped collection, which every node tails
+ * with a tailable cursor, republishing records from other nodes as remote events. No broker is needed, it works
+ * on a standalone mongod.</p>
+ *
+ * <p>Tailing starts at node startup time, so the capped collection is never replayed. When the cursor dies it
+ * restarts from the last applied record timestamp, minus an overlap to absorb clock skew between nodes
+ * (replaying an invalidation is harmless).</p>
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String FIELD_NODE = "node";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_TS = "ts";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Value("${app.config.bus.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.config.bus.collection:invalidations}")
+    private String collectionName;
+
+    @Value("${app.config.bus.size:1048576}")
+    private long size;
+
+    @Value("${app.config.bus.overlap:5000}")
+    private long overlap;
+
+    @Value("${app.config.bus.retry:1000}")
+    private long retry;
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder applied = new LongAdder();
+
+    private final LongAdder restarts = new LongAdder();
+
+    private Timer lag;
+
+    private volatile boolean running;
+
+    private volatile MongoCursor<Document> cursor;
+
+    private Thread tailer;
+
+    private long lastTs;
+
+    /**
+     * Publish local changes to other nodes
+     *
+     * @param event {@link UserEvent}
+     */
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (!running || event.isRemote()) {
+            return;
+        }
+
+        Document record = new Document(FIELD_NODE, node)
+                .append(FIELD_NAME, event.getName())
+                .append(FIELD_TYPE, event.getType().name())
+                .append(FIELD_TS, new Date(event.getTimestamp()));
+        try {
+            collection().insertOne(record);
+            published.increment();
+        } catch (MongoException e) {
+            // Other nodes will serve stale data until their caches expire
+            LOGGER.error("Unable to publish invalidation for: " + event.getName(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        /*
+           Avoid misconfiguration
+        */
+        if (size < 4096) {
+            size = 1048576;
+        }
+
+        if (overlap < 0) {
+            overlap = 5000;
+        }
+
+        if (retry <= 0) {
+            retry = 1000;
+        }
+
+        try {
+            if (!mongoTemplate.collectionExists(collectionName)) {
+                mongoTemplate.createCollection(collectionName, CollectionOptions.empty().capped().size(size));
+            }
+        } catch (MongoException e) {
+            // Most likely created by other node meanwhile
+            LOGGER.warn("Unable to create invalidation collection: " + e.getMessage());
+        }
+
+        // Never replay past records
+        lastTs = System.currentTimeMillis();
+        running = true;
+        tailer = new Thread(this::tail, "BUS-tailer");
+        tailer.setDaemon(true);
+        tailer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        MongoCursor<Document> current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (MongoException e) {
+                // Closing anyway
+            }
+        }
+        if (tailer != null) {
+            tailer.interrupt();
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lag = Timer.builder("bus.lag")
+                .description("Invalidation propagation lag")
+                .register(registry);
+        FunctionCounter.builder("bus.published", published, LongAdder::doubleValue)
+                .description("Invalidations published")
+                .register(registry);
+        FunctionCounter.builder("bus.applied", applied, LongAdder::doubleValue)
+                .description("Invalidations received from other nodes")
+                .register(registry);
+        FunctionCounter.builder("bus.restarts", restarts, LongAdder::doubleValue)
+                .description("Tailable cursor restarts")
+                .register(registry);
+    }
+
+    private void tail() {
+        while (running) {
+            Date from = new Date(lastTs - overlap);
+            try (MongoCursor<Document> tailable = collection()
+                    .find(Filters.gte(FIELD_TS, from))
+                    .cursorType(CursorType.TailableAwait)
+                    .noCursorTimeout(true)
+                    .iterator()) {
+                cursor = tailable;
+                while (running && tailable.hasNext()) {
+                    apply(tailable.next());
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    LOGGER.warn("Invalidation cursor died: " + e.getMessage());
+                }
+            }
+
+            // Dead cursor (empty collection, network, failover), restart
+            if (running) {
+                restarts.increment();
+                try {
+                    Thread.sleep(retry);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(Document record) {
+        Date ts = record.getDate(FIELD_TS);
+        if (ts != null && ts.getTime() > lastTs) {
+            lastTs = ts.getTime();
+        }
+
+        // Own records were applied locally
+        if (node.equals(record.getString(FIELD_NODE))) {
+            return;
+        }
+
+        UserEvent.Type type;
+        try {
+            type = UserEvent.Type.valueOf(record.getString(FIELD_TYPE));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            LOGGER.warn("Unknown invalidation record: " + record.toJson());
+            return;
+        }
+
+        long timestamp = ts == null ? System.currentTimeMillis() : ts.getTime();
+        publisher.publishEvent(new UserEvent(record.getString(FIELD_NAME), type, timestamp, true));
+        applied.increment();
+        if (ts != null && lag != null) {
+            lag.record(Math.max(0, System.currentTimeMillis() - ts.getTime()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(collectionName);
+    }
+}
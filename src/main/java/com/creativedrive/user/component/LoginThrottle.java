@@ -0,0 +1,315 @@
+package com.creativedrive.user.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Failed login limiter, keyed by principal name and remote address.
+ *
+ * <p>Failures are counted on sliding windows (current plus weighted previous window), stored in a fixed size
+ * table of lock free slots. Each slot packs a key fingerprint, the window index and both window counters into a
+ * single long, updated with CAS. Keys are hashed with a random per process key, so slots can't be targeted.</p>
+ *
+ * <p>Memory is bounded by the table size: keys compete for a small set of slots and, when all of them are busy,
+ * the slot with the lowest estimate is evicted (approximate eviction).</p>
+ */
+@Component
+public class LoginThrottle implements MeterBinder {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    // Slots probed per key
+    private static final int WAYS = 4;
+
+    // Window counters saturate
+    private static final int MAX_COUNT = 0xFF;
+
+    private static final long MASK_24 = 0xFFFFFFL;
+
+    @Value("${app.config.throttle.capacity:65536}")
+    private int capacity;
+
+    @Value("${app.config.throttle.window:60}")
+    private long window;
+
+    @Value("${app.config.throttle.max.name:10}")
+    private int maxByName;
+
+    @Value("${app.config.throttle.max.address:50}")
+    private int maxByAddress;
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> mac;
+
+    private final LongAdder checks = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private AtomicLongArray slots;
+
+    private long windowMillis;
+
+    public LoginThrottle() {
+        byte[] salt = new byte[32];
+        new SecureRandom().nextBytes(salt);
+        key = new SecretKeySpec(salt, ALGORITHM);
+        mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (capacity < WAYS || capacity > (1 << 24)) {
+            capacity = 65536;
+        }
+
+        if (window <= 0) {
+            window = 60;
+        }
+
+        if (maxByName <= 0 || maxByName > MAX_COUNT) {
+            maxByName = 10;
+        }
+
+        if (maxByAddress <= 0 || maxByAddress > MAX_COUNT) {
+            maxByAddress = 50;
+        }
+
+        // Power of two, for masking
+        slots = new AtomicLongArray(Integer.highestOneBit(capacity));
+        windowMillis = TimeUnit.SECONDS.toMillis(window);
+    }
+
+    /**
+     * Check if login attempts must be rejected
+     *
+     * @param name    {@link String} principal name
+     * @param address {@link String} remote address, may be null
+     * @return true if over limit, false otherwise
+     */
+    public boolean isBlocked(String name, String address) {
+        checks.increment();
+        long now = System.currentTimeMillis();
+        boolean blocked = estimate(hash("n:" + name), now) >= maxByName
+                || (address != null && estimate(hash("a:" + address), now) >= maxByAddress);
+        if (blocked) {
+            rejections.increment();
+        }
+        return blocked;
+    }
+
+    /**
+     * Record failed login attempt
+     *
+     * @param name    {@link String} principal name
+     * @param address {@link String} remote address, may be null
+     */
+    public void recordFailure(String name, String address) {
+        long now = System.currentTimeMillis();
+        increment(hash("n:" + name), now);
+        if (address != null) {
+            increment(hash("a:" + address), now);
+        }
+    }
+
+    /**
+     * Clear failures recorded for a principal
+     *
+     * @param name {@link String} principal name
+     */
+    public void reset(String name) {
+        long hash = hash("n:" + name);
+        long fingerprint = fingerprint(hash);
+        int base = bucket(hash);
+        for (int i = 0; i < WAYS; i++) {
+            long value = slots.get(base + i);
+            if (fingerprintOf(value) == fingerprint) {
+                slots.compareAndSet(base + i, value, 0L);
+            }
+        }
+    }
+
+    /**
+     * Number of keys with failures on current sliding window
+     *
+     * @return tracked keys count
+     */
+    public long trackedKeys() {
+        long now = System.currentTimeMillis();
+        long count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (estimate(slots.get(i), windowIndex(now), windowFraction(now)) > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Window duration
+     *
+     * @return window seconds
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.throttle.tracked", this, LoginThrottle::trackedKeys)
+                .description("Keys with failed logins on current window")
+                .register(registry);
+        FunctionCounter.builder("auth.throttle.checks", checks, LongAdder::doubleValue)
+                .description("Login attempts checked")
+                .register(registry);
+        FunctionCounter.builder("auth.throttle.rejections", rejections, LongAdder::doubleValue)
+                .description("Login attempts rejected due too many failures")
+                .register(registry);
+    }
+
+    private double estimate(long hash, long now) {
+        long fingerprint = fingerprint(hash);
+        int base = bucket(hash);
+        for (int i = 0; i < WAYS; i++) {
+            long value = slots.get(base + i);
+            if (fingerprintOf(value) == fingerprint) {
+                return estimate(value, windowIndex(now), windowFraction(now));
+            }
+        }
+        return 0;
+    }
+
+    private void increment(long hash, long now) {
+        long fingerprint = fingerprint(hash);
+        long index = windowIndex(now);
+        double fraction = windowFraction(now);
+        int base = bucket(hash);
+
+        while (true) {
+            int victim = -1;
+            double victimEstimate = Double.MAX_VALUE;
+
+            for (int i = 0; i < WAYS; i++) {
+                long value = slots.get(base + i);
+                if (fingerprintOf(value) == fingerprint) {
+                    // Found, roll windows if needed and count
+                    long current = currentOf(value);
+                    long previous = previousOf(value);
+                    long valueIndex = windowOf(value);
+                    if (valueIndex != index) {
+                        previous = valueIndex == ((index - 1) & MASK_24) ? current : 0;
+                        current = 0;
+                    }
+                    long updated = pack(fingerprint, index, Math.min(current + 1, MAX_COUNT), previous);
+                    if (slots.compareAndSet(base + i, value, updated)) {
+                        return;
+                    }
+                    victim = -2;
+                    break;
+                }
+
+                double valueEstimate = estimate(value, index, fraction);
+                if (valueEstimate < victimEstimate) {
+                    victim = i;
+                    victimEstimate = valueEstimate;
+                }
+            }
+
+            // Lost a race, try again
+            if (victim == -2) {
+                continue;
+            }
+
+            // Not found, take over the least relevant slot
+            long value = slots.get(base + victim);
+            if (slots.compareAndSet(base + victim, value, pack(fingerprint, index, 1, 0))) {
+                return;
+            }
+        }
+    }
+
+    private double estimate(long value, long index, double fraction) {
+        if (value == 0L) {
+            return 0;
+        }
+        long valueIndex = windowOf(value);
+        if (valueIndex == index) {
+            return currentOf(value) + previousOf(value) * (1 - fraction);
+        }
+        if (valueIndex == ((index - 1) & MASK_24)) {
+            return currentOf(value) * (1 - fraction);
+        }
+        return 0;
+    }
+
+    private long windowIndex(long now) {
+        return (now / windowMillis) & MASK_24;
+    }
+
+    private double windowFraction(long now) {
+        return (now % windowMillis) / (double) windowMillis;
+    }
+
+    private int bucket(long hash) {
+        return (int) hash & (slots.length() - 1) & -WAYS;
+    }
+
+    private long fingerprint(long hash) {
+        long fingerprint = (hash >>> 40) & MASK_24;
+        // Zero is reserved for empty slots
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private static long pack(long fingerprint, long index, long current, long previous) {
+        return fingerprint << 40 | index << 16 | current << 8 | previous;
+    }
+
+    private static long fingerprintOf(long value) {
+        return value >>> 40;
+    }
+
+    private static long windowOf(long value) {
+        return (value >>> 16) & MASK_24;
+    }
+
+    private static long currentOf(long value) {
+        return (value >>> 8) & MAX_COUNT;
+    }
+
+    private static long previousOf(long value) {
+        return value & MAX_COUNT;
+    }
+
+    private long hash(String value) {
+        byte[] digest = mac.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest).getLong();
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
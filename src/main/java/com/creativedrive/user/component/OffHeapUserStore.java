@@ -0,0 +1,507 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Off heap store of serialized users, second level of {@link UserCache}.
+ *
+ * <p>Users are kept as compact byte records on direct {@link ByteBuffer} slabs, outside the collected heap, and
+ * decoded only on hits. The store is split into segments, each one with its own lock, slabs, LRU index and
+ * free lists per size class (segmented allocator). When a segment reaches its share of the memory ceiling, least
+ * recently used records of the same size class are evicted to make room. If there are none, the slab of the least
+ * recently used record is emptied and carved again for the new size class (slab reassignment).</p>
+ *
+ * <p>Records carry their write time, and are misses once older than the user cache TTL, as first level entries.</p>
+ */
+@Component
+public class OffHeapUserStore implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapUserStore.class);
+
+    private static final int SEGMENTS = 16;
+
+    // Chunk size classes, records beyond the last one are not stored
+    private static final int[] CLASSES = {64, 128, 256, 512, 1024, 2048};
+
+    @Value("${app.config.user.offheap.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.config.user.offheap.max:67108864}")
+    private long maxBytes;
+
+    @Value("${app.config.user.offheap.slab:1048576}")
+    private int slabBytes;
+
+    @Value("${app.config.user.cache.ttl:60}")
+    private long ttl;
+
+    private final AtomicLong stamp = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private Segment[] segments;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (slabBytes < CLASSES[CLASSES.length - 1] || slabBytes > (1 << 24)) {
+            slabBytes = 1048576;
+        }
+
+        if (maxBytes < (long) slabBytes * SEGMENTS) {
+            LOGGER.warn("Off heap store needs at least one slab per segment, max raised to "
+                    + (long) slabBytes * SEGMENTS + " bytes");
+            maxBytes = (long) slabBytes * SEGMENTS;
+        }
+
+        if (ttl <= 0) {
+            ttl = 60;
+        }
+
+        segments = new Segment[SEGMENTS];
+        int slabsPerSegment = (int) Math.min(Integer.MAX_VALUE, maxBytes / SEGMENTS / slabBytes);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(slabsPerSegment);
+        }
+    }
+
+    /**
+     * Check if store is enabled
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current invalidation stamp, to be taken before any datastore lookup
+     *
+     * @return stamp value
+     * @see #put(User, long)
+     */
+    public long stamp() {
+        return stamp.get();
+    }
+
+    /**
+     * Get stored user
+     *
+     * @param name {@link String} user name
+     * @return {@link Optional<User>} decoded user, empty if not stored or expired
+     */
+    public Optional<User> get(String name) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        byte[] record = segment(name).read(name, System.nanoTime() - TimeUnit.SECONDS.toNanos(ttl));
+        if (record == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(decode(record));
+    }
+
+    /**
+     * Store user.
+     * <p>
+     * Skipped if any removal happened after the stamp was taken, so a lookup racing with a change never
+     * stores stale data
+     *
+     * @param user  {@link User} to store
+     * @param since stamp taken before the lookup
+     */
+    public void put(User user, long since) {
+        if (!enabled || user.getName() == null) {
+            return;
+        }
+        segment(user.getName()).write(user.getName(), encode(user), since);
+    }
+
+    /**
+     * Remove stored user
+     *
+     * @param name {@link String} user name
+     */
+    public void remove(String name) {
+        if (enabled) {
+            segment(name).remove(name);
+        }
+    }
+
+    /**
+     * Remove all users
+     */
+    public void clear() {
+        if (enabled) {
+            for (Segment segment : segments) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Bytes reserved by slabs
+     *
+     * @return bytes count
+     */
+    public long reservedBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.reserved();
+        }
+        return total;
+    }
+
+    /**
+     * Bytes of chunks holding records
+     *
+     * @return bytes count
+     */
+    public long usedBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.used;
+        }
+        return total;
+    }
+
+    /**
+     * Ratio of used chunk bytes not holding record data (internal fragmentation)
+     *
+     * @return ratio between 0 and 1
+     */
+    public double fragmentation() {
+        long used = 0;
+        long payload = 0;
+        for (Segment segment : segments) {
+            used += segment.used;
+            payload += segment.payload;
+        }
+        return used == 0 ? 0 : 1 - (double) payload / used;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("users.offheap.reserved", this, OffHeapUserStore::reservedBytes)
+                .description("Off heap bytes reserved by slabs")
+                .register(registry);
+        Gauge.builder("users.offheap.used", this, OffHeapUserStore::usedBytes)
+                .description("Off heap bytes holding users")
+                .register(registry);
+        Gauge.builder("users.offheap.fragmentation", this, OffHeapUserStore::fragmentation)
+                .description("Ratio of used off heap bytes wasted by size classes")
+                .register(registry);
+        FunctionCounter.builder("users.offheap.hits", hits, LongAdder::doubleValue)
+                .register(registry);
+        FunctionCounter.builder("users.offheap.misses", misses, LongAdder::doubleValue)
+                .register(registry);
+        FunctionCounter.builder("users.offheap.evictions", evictions, LongAdder::doubleValue)
+                .register(registry);
+    }
+
+    private Segment segment(String name) {
+        int hash = name.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /*
+       Record codec: write time (8 bytes), then each field as 2 bytes length (-1 for null) plus UTF-8 bytes
+    */
+
+    private static byte[] encode(User user) {
+        String[] fields = {user.getId(), user.getProfile(), user.getName(), user.getEmail(),
+                user.getPassword(), user.getAddress(), user.getPhone(),
+                user.getVersion() == null ? null : user.getVersion().toString()};
+
+        byte[][] values = new byte[fields.length][];
+        int size = Long.BYTES;
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = fields[i] == null ? null : fields[i].getBytes(StandardCharsets.UTF_8);
+            size += 2 + (values[i] == null ? 0 : values[i].length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(System.nanoTime());
+        for (byte[] value : values) {
+            if (value == null) {
+                buffer.putShort((short) -1);
+            } else {
+                buffer.putShort((short) value.length);
+                buffer.put(value);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static User decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.getLong();
+        User user = new User();
+        user.setId(readString(buffer));
+        user.setProfile(readString(buffer));
+        user.setName(readString(buffer));
+        user.setEmail(readString(buffer));
+        user.setPassword(readString(buffer));
+        user.setAddress(readString(buffer));
+        user.setPhone(readString(buffer));
+        String version = readString(buffer);
+        user.setVersion(version == null ? null : Long.valueOf(version));
+        return user;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int sizeClass(int length) {
+        for (int i = 0; i < CLASSES.length; i++) {
+            if (length <= CLASSES[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+       Chunk addresses packed as: slab (16 bits) | offset (24 bits) | class (8 bits) | length (16 bits)
+    */
+
+    private static long address(int slab, int offset, int cls, int length) {
+        return (long) slab << 48 | (long) offset << 24 | (long) cls << 16 | length;
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 48);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) ((address >>> 24) & 0xFFFFFF);
+    }
+
+    private static int classOf(long address) {
+        return (int) ((address >>> 16) & 0xFF);
+    }
+
+    private static int lengthOf(long address) {
+        return (int) (address & 0xFFFF);
+    }
+
+    /**
+     * Store segment, all access under its own lock
+     */
+    private final class Segment {
+
+        private final int maxSlabs;
+
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+
+        private final List<ArrayDeque<Long>> free = new ArrayList<>();
+
+        // Access ordered, eldest first
+        private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+
+        private int top;
+
+        private volatile long used;
+
+        private volatile long payload;
+
+        private Segment(int maxSlabs) {
+            this.maxSlabs = Math.max(1, Math.min(maxSlabs, 0xFFFF));
+            for (int ignored : CLASSES) {
+                free.add(new ArrayDeque<>());
+            }
+        }
+
+        private synchronized long reserved() {
+            return (long) slabs.size() * slabBytes;
+        }
+
+        private synchronized byte[] read(String name, long writtenAfter) {
+            Long address = index.get(name);
+            if (address == null) {
+                return null;
+            }
+            ByteBuffer slab = slabs.get(slabOf(address)).duplicate();
+            slab.position(offsetOf(address));
+
+            // Expired, drop it (not an invalidation, stamp is kept)
+            if (slab.getLong(offsetOf(address)) - writtenAfter < 0) {
+                index.remove(name);
+                release(address);
+                return null;
+            }
+
+            byte[] record = new byte[lengthOf(address)];
+            slab.get(record);
+            return record;
+        }
+
+        private synchronized void write(String name, byte[] record, long since) {
+            // Changed meanwhile
+            if (stamp.get() != since) {
+                return;
+            }
+
+            int cls = sizeClass(record.length);
+            if (cls < 0) {
+                return;
+            }
+
+            release(index.remove(name));
+            long address = allocate(cls, record.length);
+            if (address < 0) {
+                return;
+            }
+
+            ByteBuffer slab = slabs.get(slabOf(address)).duplicate();
+            slab.position(offsetOf(address));
+            slab.put(record);
+            index.put(name, address);
+            used += CLASSES[cls];
+            payload += record.length;
+        }
+
+        private synchronized void remove(String name) {
+            stamp.incrementAndGet();
+            release(index.remove(name));
+        }
+
+        private synchronized void clear() {
+            stamp.incrementAndGet();
+            index.clear();
+            for (ArrayDeque<Long> chunks : free) {
+                chunks.clear();
+            }
+            // Keep slabs reserved, reuse from start
+            top = 0;
+            used = 0;
+            payload = 0;
+        }
+
+        private long allocate(int cls, int length) {
+            while (true) {
+                // Reuse freed chunk
+                Long chunk = free.get(cls).poll();
+                if (chunk != null) {
+                    return address(slabOf(chunk), offsetOf(chunk), cls, length);
+                }
+
+                // Bump allocate on current slab
+                int size = CLASSES[cls];
+                int current = top / slabBytes;
+                int offset = top % slabBytes;
+                if (current < slabs.size() && offset + size <= slabBytes) {
+                    top += size;
+                    return address(current, offset, cls, length);
+                }
+
+                // Move to next slab (tail of current one is wasted)
+                if (current < slabs.size()) {
+                    top = (current + 1) * slabBytes;
+                    continue;
+                }
+                if (slabs.size() < maxSlabs) {
+                    slabs.add(ByteBuffer.allocateDirect(slabBytes));
+                    continue;
+                }
+
+                // Full, evict least recently used of the same class (chunks are never coalesced)
+                if (!evictEldest(cls) && !reassignSlab(cls)) {
+                    return -1;
+                }
+            }
+        }
+
+        private boolean evictEldest(int cls) {
+            Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Long address = iterator.next().getValue();
+                if (classOf(address) == cls) {
+                    iterator.remove();
+                    release(address);
+                    evictions.increment();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Evict all records of the least recently used record slab, and carve it into chunks of the given class
+         */
+        private boolean reassignSlab(int cls) {
+            if (index.isEmpty()) {
+                return false;
+            }
+            int slab = slabOf(index.values().iterator().next());
+
+            Iterator<Long> records = index.values().iterator();
+            while (records.hasNext()) {
+                Long address = records.next();
+                if (slabOf(address) == slab) {
+                    records.remove();
+                    used -= CLASSES[classOf(address)];
+                    payload -= lengthOf(address);
+                    evictions.increment();
+                }
+            }
+            for (ArrayDeque<Long> chunks : free) {
+                chunks.removeIf(address -> slabOf(address) == slab);
+            }
+
+            int size = CLASSES[cls];
+            for (int offset = 0; offset + size <= slabBytes; offset += size) {
+                free.get(cls).add(address(slab, offset, cls, 0));
+            }
+            return true;
+        }
+
+        private void release(Long address) {
+            if (address == null) {
+                return;
+            }
+            int cls = classOf(address);
+            free.get(cls).push(address);
+            used -= CLASSES[cls];
+            payload -= lengthOf(address);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.creativedrive.user.component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jasypt.util.password.PasswordEncryptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Password hashing bulkhead.
+ *
+ * <p>Runs {@link PasswordEncryptor} on a dedicated bounded pool, so CPU bound hashing never starves I/O bound
+ * work. When saturated, hashing fails fast with {@link RejectedExecutionException}.</p>
+ *
+ * @see com.creativedrive.user.config.ThreadPoolConfig#hashExecutor()
+ */
+@Component
+public class PasswordHasher implements MeterBinder {
+
+    @Autowired
+    private PasswordEncryptor encryptor;
+
+    @Autowired
+    @Qualifier("hashExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Encrypt password
+     *
+     * @param password {@link String} plain password
+     * @return {@link CompletableFuture<String>} with encrypted password
+     */
+    public CompletableFuture<String> encrypt(final String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> encryptor.encryptPassword(password), executor);
+        } catch (RejectedExecutionException e) {
+            // Saturated
+            rejected.increment();
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * Encrypt passwords in parallel.
+     * <p>
+     * Passwords are hashed by up to half the hashing threads, one password per task: each task takes the next
+     * password and resubmits itself, so logins and single creates queued meanwhile are not starved by large batches
+     *
+     * @param passwords {@link List<String>} plain passwords
+     * @return {@link CompletableFuture<List>} with encrypted passwords, in the same order
+     */
+    public CompletableFuture<List<String>> encryptAll(final List<String> passwords) {
+        BulkHash bulk = new BulkHash(passwords);
+        if (passwords.isEmpty()) {
+            bulk.future.complete(new ArrayList<>());
+            return bulk.future;
+        }
+
+        int lanes = Math.max(1, Math.min(executor.getCorePoolSize() / 2, passwords.size()));
+        for (int lane = 0; lane < lanes; lane++) {
+            try {
+                executor.execute(bulk::run);
+            } catch (RejectedExecutionException e) {
+                // Saturated, lanes already running take the remaining passwords
+                if (lane == 0) {
+                    rejected.increment();
+                    bulk.future.completeExceptionally(e);
+                }
+                break;
+            }
+        }
+        return bulk.future;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        Gauge.builder("hash.executor.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("Threads actively hashing")
+                .register(registry);
+        Gauge.builder("hash.executor.queued", pool, value -> value.getQueue().size())
+                .description("Hashing tasks waiting in queue")
+                .register(registry);
+        Gauge.builder("hash.executor.queue.remaining", pool, value -> value.getQueue().remainingCapacity())
+                .description("Hashing queue free slots")
+                .register(registry);
+        FunctionCounter.builder("hash.executor.completed", pool, ThreadPoolExecutor::getCompletedTaskCount)
+                .description("Hashing tasks completed")
+                .register(registry);
+        FunctionCounter.builder("hash.executor.rejected", rejected, LongAdder::doubleValue)
+                .description("Hashing tasks rejected due saturation")
+                .register(registry);
+    }
+
+    /**
+     * Passwords shared by bulk hashing tasks
+     */
+    private final class BulkHash {
+
+        private final List<String> passwords;
+
+        private final String[] encrypted;
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        private final AtomicInteger done = new AtomicInteger();
+
+        private final CompletableFuture<List<String>> future = new CompletableFuture<>();
+
+        private BulkHash(List<String> passwords) {
+            this.passwords = passwords;
+            this.encrypted = new String[passwords.size()];
+        }
+
+        private void run() {
+            while (true) {
+                int index = next.getAndIncrement();
+                if (index >= encrypted.length || future.isDone()) {
+                    return;
+                }
+
+                try {
+                    encrypted[index] = encryptor.encryptPassword(passwords.get(index));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+                if (done.incrementAndGet() == encrypted.length) {
+                    future.complete(Arrays.asList(encrypted));
+                    return;
+                }
+
+                // Back to the queue tail, behind work queued meanwhile
+                try {
+                    executor.execute(this::run);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Queue full, keep hashing on this thread
+                }
+            }
+        }
+    }
+}
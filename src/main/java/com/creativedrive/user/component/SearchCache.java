@@ -0,0 +1,233 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.creativedrive.user.domain.UserPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Search result cache, keyed by filter fingerprint.
+ *
+ * <p>Every user change (local or remote) bumps a collection wide generation, so invalidation is O(1): pages cached
+ * on older generations are just ignored, and evicted as they are met. Pages are bounded by an estimate of their
+ * heap size and by TTL. Hits and misses are reported by fingerprint class (filter shape).</p>
+ */
+@Component
+public class SearchCache implements MeterBinder {
+
+    // Beyond it, new shapes are reported together
+    private static final int MAX_SHAPES = 100;
+
+    private static final String OTHER_SHAPE = "other";
+
+    @Value("${app.config.search.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.config.search.cache.weight:16777216}")
+    private long maxWeight;
+
+    @Value("${app.config.search.cache.ttl:10}")
+    private long ttl;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    private Cache<String, Entry> cache;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (maxWeight <= 0) {
+            maxWeight = 16777216;
+        }
+
+        if (ttl <= 0) {
+            ttl = 10;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, Entry entry) -> entry.weight)
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Whether search results are cached
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current generation, to be taken before searching
+     *
+     * @return generation value
+     * @see #put(String, long, UserPage)
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Get cached page, if still current
+     *
+     * @param fingerprint {@link String} filter fingerprint
+     * @param shape       {@link String} filter shape, for statistics
+     * @return {@link Optional<UserPage>}
+     */
+    public Optional<UserPage> get(String fingerprint, String shape) {
+        Entry entry = cache.getIfPresent(fingerprint);
+        if (entry != null && entry.generation != generation.get()) {
+            cache.asMap().remove(fingerprint, entry);
+            entry = null;
+        }
+
+        Stats shapeStats = stats(shape);
+        if (entry == null) {
+            shapeStats.misses.increment();
+            return Optional.empty();
+        }
+        shapeStats.hits.increment();
+        return Optional.of(entry.page);
+    }
+
+    /**
+     * Cache page. Pages searched on a past generation are never cached
+     *
+     * @param fingerprint {@link String} filter fingerprint
+     * @param since       generation taken before searching
+     * @param page        {@link UserPage} result
+     */
+    public void put(String fingerprint, long since, UserPage page) {
+        if (since == generation.get()) {
+            cache.put(fingerprint, new Entry(since, page));
+        }
+    }
+
+    /**
+     * Invalidate all pages
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Any user change may affect any page
+     *
+     * @param event {@link UserEvent}
+     */
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        stats.forEach(this::register);
+    }
+
+    private Stats stats(String shape) {
+        Stats shapeStats = stats.get(shape);
+        if (shapeStats != null) {
+            return shapeStats;
+        }
+        if (stats.size() >= MAX_SHAPES) {
+            shape = OTHER_SHAPE;
+        }
+        return stats.computeIfAbsent(shape, key -> {
+            Stats created = new Stats();
+            if (registry != null) {
+                register(key, created);
+            }
+            return created;
+        });
+    }
+
+    private void register(String shape, Stats shapeStats) {
+        FunctionCounter.builder("users.search.cache.hits", shapeStats.hits, LongAdder::doubleValue)
+                .tag("class", shape)
+                .register(registry);
+        FunctionCounter.builder("users.search.cache.misses", shapeStats.misses, LongAdder::doubleValue)
+                .tag("class", shape)
+                .register(registry);
+        Gauge.builder("users.search.cache.ratio", shapeStats, Stats::hitRatio)
+                .tag("class", shape)
+                .description("Search cache hit ratio by filter shape")
+                .register(registry);
+    }
+
+    /**
+     * Cached page on its generation
+     */
+    private static final class Entry {
+
+        private final long generation;
+
+        private final UserPage page;
+
+        private final int weight;
+
+        private Entry(long generation, UserPage page) {
+            this.generation = generation;
+            this.page = page;
+            this.weight = weigh(page);
+        }
+
+        // Rough heap estimate: object headers plus UTF-16 chars
+        private static int weigh(UserPage page) {
+            long weight = 64;
+            for (User user : page.getContent()) {
+                weight += 48 + 7 * 40;
+                weight += 2 * (length(user.getId()) + length(user.getProfile()) + length(user.getName())
+                        + length(user.getEmail()) + length(user.getPassword()) + length(user.getAddress())
+                        + length(user.getPhone()));
+            }
+            return (int) Math.min(Integer.MAX_VALUE, weight);
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    /**
+     * Hits and misses of a filter shape
+     */
+    private static final class Stats {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private double hitRatio() {
+            long total = hits.sum() + misses.sum();
+            return total == 0 ? 0 : (double) hits.sum() / total;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.creativedrive.user.persistence.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read through cache of users by name.
+ *
+ * <p>Bounded by size (W-TinyLFU admission) and TTL. Misses may be cached as well (negative entries) with their
+ * own TTL, disabled by default. Cached users are shared, so they must not be changed.</p>
+ *
+ * <p>When enabled, {@link OffHeapUserStore} works as second level: loaded users are stored off heap as well, so
+ * users evicted from this (small) level are decoded back from it instead of being fetched again, until they
+ * expire with the same TTL.</p>
+ */
+@Component
+public class UserCache implements MeterBinder {
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private OffHeapUserStore offHeapStore;
+
+    @Value("${app.config.user.cache.size:10000}")
+    private long maxSize;
+
+    @Value("${app.config.user.cache.ttl:60}")
+    private long ttl;
+
+    @Value("${app.config.user.cache.negative.ttl:0}")
+    private long negativeTtl;
+
+    private final AtomicLong stamp = new AtomicLong();
+
+    private LoadingCache<String, Optional<User>> cache;
+
+    // Access frequencies, feed warm up snapshots
+    private Cache<String, LongAdder> frequencies;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (maxSize < 0) {
+            maxSize = 10000;
+        }
+
+        if (ttl <= 0) {
+            ttl = 60;
+        }
+
+        if (negativeTtl < 0) {
+            negativeTtl = 0;
+        }
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry(TimeUnit.SECONDS.toNanos(ttl), TimeUnit.SECONDS.toNanos(negativeTtl)))
+                .recordStats()
+                .build(this::load);
+
+        frequencies = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Get user, loading it from datastore if not cached
+     *
+     * @param name {@link String} user name
+     * @return {@link Optional<User>}
+     */
+    public Optional<User> get(String name) {
+        frequencies.get(name, key -> new LongAdder()).increment();
+        return cache.get(name);
+    }
+
+    /**
+     * Get cached users (hits and cached misses) without loading the others.
+     * <p>
+     * Users are looked up on off heap second level as well
+     *
+     * @param names {@link Collection<String>} user names
+     * @return {@link Map} of cached names to users, names not cached are absent
+     */
+    public Map<String, Optional<User>> getAllPresent(Collection<String> names) {
+        Map<String, Optional<User>> result = new HashMap<>();
+        for (String name : names) {
+            frequencies.get(name, key -> new LongAdder()).increment();
+            Optional<User> user = cache.getIfPresent(name);
+            if (user == null) {
+                user = offHeapStore.get(name);
+                if (!user.isPresent()) {
+                    continue;
+                }
+            }
+            result.put(name, user);
+        }
+        return result;
+    }
+
+    /**
+     * Current invalidation stamp, to be taken before any datastore lookup
+     *
+     * @return stamp value
+     * @see #preload(Collection, long)
+     */
+    public long stamp() {
+        return stamp.get();
+    }
+
+    /**
+     * Cache users fetched in bulk (warm up).
+     * <p>
+     * Skipped if any invalidation happened after the stamp was taken, so a lookup racing with an update
+     * never caches stale users
+     *
+     * @param users {@link Collection<User>} fetched users
+     * @param since stamp taken before the lookup
+     */
+    public void preload(Collection<User> users, long since) {
+        long offHeapSince = offHeapStore.stamp();
+        for (User user : users) {
+            cache.asMap().putIfAbsent(user.getName(), Optional.of(user));
+            offHeapStore.put(user, offHeapSince);
+        }
+        if (stamp.get() != since) {
+            users.forEach(user -> invalidate(user.getName()));
+        }
+    }
+
+    /**
+     * Most frequently accessed user names
+     *
+     * @param limit maximal number of names
+     * @return {@link Map} of user names to access frequencies, hottest first
+     */
+    public Map<String, Long> hottest(int limit) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        frequencies.asMap().entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum())
+                        .reversed())
+                .limit(limit)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue().sum()));
+        return result;
+    }
+
+    /**
+     * Invalidate cached user (or miss)
+     *
+     * @param name {@link String} user name
+     */
+    public void invalidate(String name) {
+        stamp.incrementAndGet();
+        offHeapStore.remove(name);
+        cache.invalidate(name);
+    }
+
+    /**
+     * Invalidate all entries
+     */
+    public void clear() {
+        stamp.incrementAndGet();
+        frequencies.invalidateAll();
+        offHeapStore.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Keep cache consistent with user changes
+     *
+     * @param event {@link UserEvent}
+     */
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        // Created users may have cached misses
+        invalidate(event.getName());
+    }
+
+    private Optional<User> load(String name) {
+        Optional<User> stored = offHeapStore.get(name);
+        if (stored.isPresent()) {
+            return stored;
+        }
+
+        long since = offHeapStore.stamp();
+        Optional<User> user = userRepo.findByName(name);
+        user.ifPresent(found -> offHeapStore.put(found, since));
+        return user;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "users");
+    }
+
+    /**
+     * Distinct expiration for hits and misses
+     */
+    private static final class EntryExpiry implements Expiry<String, Optional<User>> {
+
+        private final long ttl;
+
+        private final long negativeTtl;
+
+        private EntryExpiry(long ttl, long negativeTtl) {
+            this.ttl = ttl;
+            this.negativeTtl = negativeTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<User> value, long currentTime) {
+            return value.isPresent() ? ttl : negativeTtl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<User> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<User> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.validation.UserField;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import java.util.Map;
+
+/**
+ * Custom bean validator for maps keyed by user fields
+ *
+ * @see {@link UserField}
+ */
+public class UserFieldMapValidator implements ConstraintValidator<UserField, Map<String, ?>> {
+
+    private final UserFieldValidator keyValidator = new UserFieldValidator();
+
+    @Override
+    public void initialize(UserField constraint) {
+        keyValidator.initialize(constraint);
+    }
+
+    @Override
+    public boolean isValid(Map<String, ?> value, ConstraintValidatorContext context) {
+        if(value == null || value.isEmpty()) {
+            return true;
+        }
+
+        return keyValidator.isValid(value.keySet(), context);
+    }
+}
@@ -2,10 +2,14 @@ package com.creativedrive.user.component;
 
 import com.creativedrive.user.domain.User;
 import com.creativedrive.user.domain.validation.UserField;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.stereotype.Component;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -16,6 +20,13 @@ import java.util.Set;
 @Component
 public class UserFieldValidator implements ConstraintValidator<UserField, Set<String>> {
 
+    private Set<String> excluded = Collections.emptySet();
+
+    @Override
+    public void initialize(UserField constraint) {
+        excluded = new HashSet<>(Arrays.asList(constraint.exclude()));
+    }
+
     @Override
     public boolean isValid(Set<String> value, ConstraintValidatorContext context) {
         if(value == null || value.isEmpty()) {
@@ -24,7 +35,13 @@ public class UserFieldValidator implements ConstraintValidator<UserField, Set<St
 
         try {
             for (String v : value) {
-                User.class.getDeclaredField(v);
+                if (excluded.contains(v)) {
+                    return false;
+                }
+                // Shadow fields are internal
+                if (User.class.getDeclaredField(v).isAnnotationPresent(JsonIgnore.class)) {
+                    return false;
+                }
             }
             // OK
             return true;
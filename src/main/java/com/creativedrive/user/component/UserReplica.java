@@ -0,0 +1,695 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.domain.UserPage;
+import com.creativedrive.user.persistence.UserRepository;
+import com.creativedrive.user.utils.FilterUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Full in memory replica of users collection, for read mostly deployments.
+ *
+ * <p>Users are bulk loaded into an immutable columnar snapshot: one array per field, dictionary encoded profiles
+ * with a bitmap per profile, and row orders sorted by name and email (used for lookups, prefix ranges and
+ * presorted results). Changes notified by {@link UserEvent} (local or from other nodes) are fetched into an
+ * overlay which shadows snapshot rows, and the snapshot is rebuilt once the overlay grows too much.</p>
+ *
+ * <p>Search semantics follow the datastore ones: filter fields are regular expressions, sorts as built by
+ * {@link FilterUtils#buildSort(UserFilter)}, nulls first. Until the snapshot is loaded, callers must fall back to
+ * the datastore.</p>
+ */
+@Component
+public class UserReplica implements SmartLifecycle, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserReplica.class);
+
+    private static final String REGEX_META = ".[]{}()\\*+?^$|";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Value("${app.config.replica.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.config.replica.overlay:10000}")
+    private int overlayMax;
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final LongAdder rebuilds = new LongAdder();
+
+    private volatile boolean running;
+
+    private volatile State state;
+
+    // Changes seen while a snapshot is loading
+    private volatile Map<String, Change> capture;
+
+    private Timer searches;
+
+    /**
+     * Check if replica can serve reads
+     *
+     * @return true if enabled and loaded
+     */
+    public boolean isReady() {
+        return enabled && state != null;
+    }
+
+    /**
+     * Get user by name, from datastore if replica was dropped meanwhile
+     *
+     * @param name {@link String} user name
+     * @return {@link Optional<User>}
+     */
+    public Optional<User> get(String name) {
+        State current = state;
+        if (current == null) {
+            return userRepo.findByName(name);
+        }
+
+        Change change = current.overlay.get(name);
+        if (change != null) {
+            return Optional.ofNullable(change.user);
+        }
+
+        int row = current.snapshot.find(name);
+        return row < 0 ? Optional.empty() : Optional.of(current.snapshot.user(row));
+    }
+
+    /**
+     * Find users matching filter
+     *
+     * @param filter {@link UserFilter}
+     * @return {@link UserPage}, null if replica was dropped meanwhile (search datastore)
+     */
+    public UserPage find(UserFilter filter) {
+        long start = System.nanoTime();
+        State current = state;
+        if (current == null) {
+            return null;
+        }
+
+        Snapshot snapshot = current.snapshot;
+        User probe = filter.getFields();
+        Sort sort = FilterUtils.buildSort(filter);
+
+        // Live snapshot rows
+        BitSet rows = new BitSet(snapshot.size);
+        rows.set(0, snapshot.size);
+        for (String name : current.overlay.keySet()) {
+            int row = snapshot.find(name);
+            if (row >= 0) {
+                rows.clear(row);
+            }
+        }
+
+        // Indexed predicates first
+        if (probe.getProfile() != null) {
+            Pattern pattern = Pattern.compile(probe.getProfile());
+            BitSet matches = new BitSet(snapshot.size);
+            for (int code = 0; code < snapshot.profileDict.length; code++) {
+                if (pattern.matcher(snapshot.profileDict[code]).find()) {
+                    matches.or(snapshot.profileBits[code]);
+                }
+            }
+            rows.and(matches);
+        }
+        narrow(rows, snapshot.names, snapshot.nameOrder, probe.getName());
+        narrow(rows, snapshot.emails, snapshot.emailOrder, probe.getEmail());
+
+        // Then scan remaining candidates
+        Matcher matcher = new Matcher(probe);
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            if (!matcher.matches(snapshot, row)) {
+                rows.clear(row);
+            }
+        }
+
+        // Changed users
+        List<User> changed = new ArrayList<>();
+        for (Change change : current.overlay.values()) {
+            if (change.user != null && matcher.matches(change.user)) {
+                changed.add(change.user);
+            }
+        }
+
+        // Hits are snapshot rows, or changed users as negative indexes
+        int[] hits = order(snapshot, rows, changed, sort);
+        int total = hits.length;
+        int size = filter.getSize();
+        int from = (int) Math.min(total, (long) filter.getPage() * size);
+        int to = Math.min(total, from + size);
+
+        List<User> content = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            content.add(hits[i] >= 0 ? snapshot.user(hits[i]) : changed.get(-1 - hits[i]));
+        }
+
+        if (searches != null) {
+            searches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return new UserPage((total + size - 1) / size, filter.getPage(), content);
+    }
+
+    /**
+     * Load a new snapshot from datastore
+     */
+    public void reload() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            Map<String, Change> changes = new ConcurrentHashMap<>();
+            capture = changes;
+
+            long start = System.currentTimeMillis();
+            Snapshot snapshot;
+            try (CloseableIterator<User> users = mongoTemplate.stream(new Query(), User.class)) {
+                snapshot = Snapshot.load(users);
+            }
+            state = new State(snapshot, changes);
+            rebuilds.increment();
+            LOGGER.info("Replica loaded " + snapshot.size + " users in " + (System.currentTimeMillis() - start)
+                    + " ms");
+        } catch (DataAccessException | IllegalStateException e) {
+            LOGGER.error("Unable to load replica: " + e.getMessage());
+        } finally {
+            capture = null;
+            loading.set(false);
+        }
+    }
+
+    /**
+     * Keep replica consistent with user changes
+     *
+     * @param event {@link UserEvent}
+     */
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        State current = state;
+        Map<String, Change> pending = capture;
+        if (!enabled || (current == null && pending == null)) {
+            return;
+        }
+
+        // Sequence taken before the lookup, most recent lookup wins
+        long seq = sequence.incrementAndGet();
+        Change change;
+        try {
+            change = new Change(seq, userRepo.findByName(event.getName()).orElse(null));
+        } catch (DataAccessException e) {
+            // Unable to keep consistency, serve from datastore until reloaded
+            LOGGER.error("Unable to refresh replica for: " + event.getName(), e);
+            state = null;
+            rebuild();
+            return;
+        }
+
+        if (pending != null) {
+            pending.merge(event.getName(), change, Change::latest);
+        }
+        if (current != null) {
+            current.overlay.merge(event.getName(), change, Change::latest);
+            if (current.overlay.size() > overlayMax) {
+                rebuild();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+
+        /*
+           Avoid misconfiguration
+        */
+        if (overlayMax <= 0) {
+            overlayMax = 10000;
+        }
+
+        rebuild();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        searches = Timer.builder("replica.search")
+                .description("Searches served by replica")
+                .register(registry);
+        Gauge.builder("replica.rows", this, replica -> replica.measure(current -> current.snapshot.size))
+                .description("Users on replica snapshot")
+                .register(registry);
+        Gauge.builder("replica.overlay", this, replica -> replica.measure(current -> current.overlay.size()))
+                .description("Users changed since replica snapshot")
+                .register(registry);
+        FunctionCounter.builder("replica.rebuilds", rebuilds, LongAdder::doubleValue)
+                .description("Replica snapshot loads")
+                .register(registry);
+    }
+
+    private double measure(ToIntFunction<State> metric) {
+        State current = state;
+        return current == null ? 0 : metric.applyAsInt(current);
+    }
+
+    private void rebuild() {
+        if (loading.get()) {
+            return;
+        }
+        Thread loader = new Thread(this::reload, "REPLICA-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Narrow rows using sorted order, for anchored regular expressions with literal prefix
+     */
+    private static void narrow(BitSet rows, String[] column, int[] order, String regex) {
+        String prefix = literalPrefix(regex);
+        if (prefix == null || prefix.isEmpty()) {
+            return;
+        }
+
+        BitSet matches = new BitSet(column.length);
+        for (int i = lowerBound(column, order, prefix); i < order.length; i++) {
+            String value = column[order[i]];
+            if (value == null || !value.startsWith(prefix)) {
+                break;
+            }
+            matches.set(order[i]);
+        }
+        rows.and(matches);
+    }
+
+    private static String literalPrefix(String regex) {
+        // Alternations may not be anchored
+        if (regex == null || !regex.startsWith("^") || regex.indexOf('|') >= 0) {
+            return null;
+        }
+
+        int end = 1;
+        while (end < regex.length() && REGEX_META.indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+        // Quantified last char is optional
+        if (end < regex.length() && "*?{".indexOf(regex.charAt(end)) >= 0) {
+            end--;
+        }
+        return regex.substring(1, Math.max(1, end));
+    }
+
+    private static int lowerBound(String[] column, int[] order, String key) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String value = column[order[mid]];
+            if (value == null || value.compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int[] order(Snapshot snapshot, BitSet rows, List<User> changed, Sort sort) {
+        // Presorted by single indexed field
+        List<Sort.Order> orders = new ArrayList<>();
+        sort.forEach(orders::add);
+        if (orders.size() == 1 && changed.isEmpty()) {
+            int[] order = snapshot.order(orders.get(0).getProperty());
+            if (order != null) {
+                boolean asc = orders.get(0).isAscending();
+                int[] hits = new int[rows.cardinality()];
+                int count = 0;
+                for (int i = 0; i < order.length; i++) {
+                    int row = order[asc ? i : order.length - 1 - i];
+                    if (rows.get(row)) {
+                        hits[count++] = row;
+                    }
+                }
+                return hits;
+            }
+        }
+
+        IntStream hits = IntStream.concat(rows.stream(), IntStream.range(0, changed.size()).map(i -> -1 - i));
+        if (orders.isEmpty()) {
+            return hits.toArray();
+        }
+
+        Comparator<Integer> comparator = null;
+        for (Sort.Order order : orders) {
+            IntFunction<String> column = snapshot.column(order.getProperty());
+            Comparator<Integer> next = Comparator.comparing(hit -> hit >= 0 ? column.apply(hit)
+                            : field(changed.get(-1 - hit), order.getProperty()),
+                    Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+            if (!order.isAscending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return hits.boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String field(User user, String field) {
+        switch (field) {
+            case "id":
+                return user.getId();
+            case "profile":
+                return user.getProfile();
+            case "name":
+                return user.getName();
+            case "email":
+                return user.getEmail();
+            case "password":
+                return user.getPassword();
+            case "address":
+                return user.getAddress();
+            case "phone":
+                return user.getPhone();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Filter fields as compiled regular expressions
+     */
+    private static final class Matcher {
+
+        private final Pattern id;
+        private final Pattern profile;
+        private final Pattern name;
+        private final Pattern email;
+        private final Pattern password;
+        private final Pattern address;
+        private final Pattern phone;
+
+        private Matcher(User probe) {
+            id = compile(probe.getId());
+            profile = compile(probe.getProfile());
+            name = compile(probe.getName());
+            email = compile(probe.getEmail());
+            password = compile(probe.getPassword());
+            address = compile(probe.getAddress());
+            phone = compile(probe.getPhone());
+        }
+
+        // Profile is matched by bitmaps
+        private boolean matches(Snapshot snapshot, int row) {
+            return matches(id, snapshot.ids[row]) && matches(name, snapshot.names[row])
+                    && matches(email, snapshot.emails[row]) && matches(password, snapshot.passwords[row])
+                    && matches(address, snapshot.addresses[row]) && matches(phone, snapshot.phones[row]);
+        }
+
+        private boolean matches(User user) {
+            return matches(id, user.getId()) && matches(profile, user.getProfile())
+                    && matches(name, user.getName()) && matches(email, user.getEmail())
+                    && matches(password, user.getPassword()) && matches(address, user.getAddress())
+                    && matches(phone, user.getPhone());
+        }
+
+        private static Pattern compile(String regex) {
+            return regex == null ? null : Pattern.compile(regex);
+        }
+
+        private static boolean matches(Pattern pattern, String value) {
+            return pattern == null || (value != null && pattern.matcher(value).find());
+        }
+    }
+
+    /**
+     * Immutable columnar users snapshot
+     */
+    private static final class Snapshot {
+
+        private final int size;
+        private final String[] ids;
+        private final String[] names;
+        private final String[] emails;
+        private final String[] passwords;
+        private final String[] addresses;
+        private final String[] phones;
+        private final Long[] versions;
+
+        // Dictionary encoded profiles
+        private final String[] profileDict;
+        private final short[] profiles;
+        private final BitSet[] profileBits;
+
+        // Rows sorted by field
+        private final int[] nameOrder;
+        private final int[] emailOrder;
+
+        private Snapshot(Columns columns) {
+            size = columns.size;
+            ids = Arrays.copyOf(columns.ids, size);
+            names = Arrays.copyOf(columns.names, size);
+            emails = Arrays.copyOf(columns.emails, size);
+            passwords = Arrays.copyOf(columns.passwords, size);
+            addresses = Arrays.copyOf(columns.addresses, size);
+            phones = Arrays.copyOf(columns.phones, size);
+            versions = Arrays.copyOf(columns.versions, size);
+            profiles = Arrays.copyOf(columns.profiles, size);
+            profileDict = columns.dict.toArray(new String[0]);
+            profileBits = columns.bits.toArray(new BitSet[0]);
+
+            nameOrder = sortedRows(names);
+            emailOrder = sortedRows(emails);
+        }
+
+        /**
+         * Fill columns straight from datastore cursor, no intermediate list of users
+         */
+        private static Snapshot load(CloseableIterator<User> users) {
+            Columns columns = new Columns();
+            users.forEachRemaining(columns::add);
+            return new Snapshot(columns);
+        }
+
+        private static int[] sortedRows(String[] column) {
+            return IntStream.range(0, column.length).boxed()
+                    .sorted(Comparator.comparing(row -> column[row],
+                            Comparator.nullsFirst(Comparator.<String>naturalOrder())))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private int find(String name) {
+            int index = lowerBound(names, nameOrder, name);
+            return index < size && name.equals(names[nameOrder[index]]) ? nameOrder[index] : -1;
+        }
+
+        private int[] order(String field) {
+            switch (field) {
+                case "name":
+                    return nameOrder;
+                case "email":
+                    return emailOrder;
+                default:
+                    return null;
+            }
+        }
+
+        private IntFunction<String> column(String field) {
+            switch (field) {
+                case "id":
+                    return row -> ids[row];
+                case "profile":
+                    return row -> profiles[row] < 0 ? null : profileDict[profiles[row]];
+                case "name":
+                    return row -> names[row];
+                case "email":
+                    return row -> emails[row];
+                case "password":
+                    return row -> passwords[row];
+                case "address":
+                    return row -> addresses[row];
+                case "phone":
+                    return row -> phones[row];
+                default:
+                    return row -> null;
+            }
+        }
+
+        private User user(int row) {
+            User user = new User();
+            user.setId(ids[row]);
+            user.setProfile(profiles[row] < 0 ? null : profileDict[profiles[row]]);
+            user.setName(names[row]);
+            user.setEmail(emails[row]);
+            user.setPassword(passwords[row]);
+            user.setAddress(addresses[row]);
+            user.setPhone(phones[row]);
+            user.setVersion(versions[row]);
+            return user;
+        }
+    }
+
+    /**
+     * Growing snapshot columns, while loading
+     */
+    private static final class Columns {
+
+        private int size;
+        private String[] ids = new String[1024];
+        private String[] names = new String[1024];
+        private String[] emails = new String[1024];
+        private String[] passwords = new String[1024];
+        private String[] addresses = new String[1024];
+        private String[] phones = new String[1024];
+        private Long[] versions = new Long[1024];
+        private short[] profiles = new short[1024];
+
+        private final Map<String, Short> codes = new HashMap<>();
+        private final List<String> dict = new ArrayList<>();
+        private final List<BitSet> bits = new ArrayList<>();
+
+        private void add(User user) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+                passwords = Arrays.copyOf(passwords, capacity);
+                addresses = Arrays.copyOf(addresses, capacity);
+                phones = Arrays.copyOf(phones, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+                profiles = Arrays.copyOf(profiles, capacity);
+            }
+
+            int row = size++;
+            ids[row] = user.getId();
+            names[row] = user.getName();
+            emails[row] = user.getEmail();
+            passwords[row] = user.getPassword();
+            addresses[row] = user.getAddress();
+            phones[row] = user.getPhone();
+            versions[row] = user.getVersion();
+
+            // Null profiles are not indexed (never match)
+            if (user.getProfile() == null) {
+                profiles[row] = -1;
+                return;
+            }
+            Short code = codes.get(user.getProfile());
+            if (code == null) {
+                if (dict.size() >= Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct profiles");
+                }
+                code = (short) dict.size();
+                codes.put(user.getProfile(), code);
+                dict.add(user.getProfile());
+                bits.add(new BitSet());
+            }
+            profiles[row] = code;
+            bits.get(code).set(row);
+        }
+    }
+
+    /**
+     * Changed user, null if deleted
+     */
+    private static final class Change {
+
+        private final long seq;
+
+        private final User user;
+
+        private Change(long seq, User user) {
+            this.seq = seq;
+            this.user = user;
+        }
+
+        private static Change latest(Change a, Change b) {
+            return a.seq >= b.seq ? a : b;
+        }
+    }
+
+    /**
+     * Snapshot plus changes overlay
+     */
+    private static final class State {
+
+        private final Snapshot snapshot;
+
+        private final Map<String, Change> overlay;
+
+        private State(Snapshot snapshot, Map<String, Change> overlay) {
+            this.snapshot = snapshot;
+            this.overlay = overlay;
+        }
+    }
+}
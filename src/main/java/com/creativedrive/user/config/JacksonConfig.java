@@ -0,0 +1,34 @@
+package com.creativedrive.user.config;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.utils.UserViewBuilder;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bootstrap JSON features.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Customizer of application object mapper: users are sent through the user view filter (all fields but
+     * password by default). Other object mappers are not affected
+     *
+     * @return {@link Jackson2ObjectMapperBuilderCustomizer}
+     * @see UserViewBuilder
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer userViewCustomizer() {
+        return builder -> builder
+                .mixIn(User.class, UserViewMixin.class)
+                .filters(UserViewBuilder.filters(null));
+    }
+
+    @JsonFilter(UserViewBuilder.FILTER)
+    abstract static class UserViewMixin {
+
+    }
+}
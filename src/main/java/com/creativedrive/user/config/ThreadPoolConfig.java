@@ -3,6 +3,7 @@ package com.creativedrive.user.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -20,6 +21,12 @@ public class ThreadPoolConfig {
     @Value("${app.config.threads.max:30}")
     private int threadPoolMax;
 
+    @Value("${app.config.hash.threads:0}")
+    private int hashThreads;
+
+    @Value("${app.config.hash.queue:100}")
+    private int hashQueue;
+
     @PostConstruct
     void postConstruct() {
         /*
@@ -36,6 +43,15 @@ public class ThreadPoolConfig {
         if (threadPoolMin > threadPoolMax) {
             threadPoolMin = threadPoolMax;
         }
+
+        // Hashing is CPU bound, match available cores by default
+        if (hashThreads > 500 || hashThreads <= 0) {
+            hashThreads = Runtime.getRuntime().availableProcessors();
+        }
+
+        if (hashQueue > 10000 || hashQueue < 0) {
+            hashQueue = 100;
+        }
     }
 
     /**
@@ -44,6 +60,7 @@ public class ThreadPoolConfig {
      * @return {@link org.springframework.core.task.TaskExecutor}
      */
     @Bean
+    @Primary
     public TaskExecutor futureExecutor() {
         ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
         // Pool bounds
@@ -56,4 +73,25 @@ public class ThreadPoolConfig {
         return taskExecutor;
     }
 
+    /**
+     * Factory for thread pool used to isolate password hashing (bulkhead).
+     * <p>
+     * Fixed size with bounded queue, rejecting tasks when saturated
+     *
+     * @return {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor}
+     */
+    @Bean
+    public ThreadPoolTaskExecutor hashExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        // Pool bounds
+        taskExecutor.setCorePoolSize(hashThreads);
+        taskExecutor.setMaxPoolSize(hashThreads);
+        taskExecutor.setQueueCapacity(hashQueue);
+        // Log friendly
+        taskExecutor.setThreadNamePrefix("HASH-");
+        // Initialize and return
+        taskExecutor.afterPropertiesSet();
+        return taskExecutor;
+    }
+
 }
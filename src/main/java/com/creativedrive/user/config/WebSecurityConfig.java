@@ -1,6 +1,9 @@
 package com.creativedrive.user.config;
 
+import com.creativedrive.user.component.AuthEntryPoint;
 import com.creativedrive.user.component.AuthProvider;
+import com.creativedrive.user.component.BearerTokenFilter;
+import com.creativedrive.user.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.AnnotationAttributes;
@@ -20,6 +23,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -75,9 +79,15 @@ public class WebSecurityConfig extends GlobalMethodSecurityConfiguration {
         @Autowired
         private AuthProvider authProvider;
 
+        @Autowired
+        private AuthEntryPoint authEntryPoint;
+
+        @Autowired
+        private TokenService tokenService;
+
         public static final String BASE_URI = "/api/**/";
 
-        private static final String[] ENDPOINTS = new String[]{"/user/**/", "/users/**/"};
+        private static final String[] ENDPOINTS = new String[]{"/user/**/", "/users/**/", "/token/**/"};
 
         protected void configure(HttpSecurity http) throws Exception {
             // Auth matchers
@@ -86,7 +96,9 @@ public class WebSecurityConfig extends GlobalMethodSecurityConfiguration {
                     .anyRequest().authenticated();
 
             // Basic auth
-            http.httpBasic();
+            http.httpBasic().authenticationEntryPoint(authEntryPoint);
+            // Bearer token auth (not registered as bean, avoiding servlet filter auto registration)
+            http.addFilterBefore(new BearerTokenFilter(tokenService), BasicAuthenticationFilter.class);
             // Disable CSRF filter
             http.csrf().disable();
             // Stateless
@@ -0,0 +1,53 @@
+package com.creativedrive.user.control;
+
+import com.creativedrive.user.component.BearerTokenFilter;
+import com.creativedrive.user.domain.AccessToken;
+import com.creativedrive.user.service.TokenService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Access token API controller
+ */
+@Api(authorizations = {@Authorization(value = "BasicAuth")})
+@RestController
+@RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+public class TokenController {
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Token issue endpoint, exchanges Basic auth credentials for an access token
+     *
+     * @param authentication {@link Authentication} from security context
+     * @return {@link ResponseEntity} with {@link AccessToken}
+     */
+    @ApiOperation(value = "Issue access token", response = AccessToken.class)
+    @PostMapping("api/token")
+    public @ResponseBody
+    ResponseEntity<AccessToken> issue(final Authentication authentication) {
+        // Tokens are not exchangeable for new tokens
+        if (authentication instanceof BearerTokenFilter.BearerAuthentication) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+
+        String profile = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse(null);
+        AccessToken token = tokenService.issue(authentication.getName(), profile);
+        return new ResponseEntity<>(token, HttpStatus.OK);
+    }
+}
@@ -2,8 +2,11 @@ package com.creativedrive.user.control;
 
 import com.creativedrive.user.domain.ApiError;
 import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserBulkResult;
+import com.creativedrive.user.domain.UserLookupResult;
 import com.creativedrive.user.service.UserService;
 import com.creativedrive.user.utils.ApiErrorBuilder;
+import com.creativedrive.user.utils.UserViewBuilder;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
@@ -12,10 +15,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.validation.Valid;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -58,19 +65,79 @@ public class UserCrudController {
         return response;
     }
 
+    /**
+     * User bulk create endpoint.
+     * <p>
+     * Users are validated one by one, so the response holds a result per user
+     *
+     * @param users {@link List<User>} from request body
+     * @return {@link DeferredResult} for chunked HTTP response
+     */
+    @ApiOperation(value = "Create new users in bulk", response = UserBulkResult.class, responseContainer = "List")
+    @PostMapping("api/users/bulk")
+    public @ResponseBody
+    DeferredResult<ResponseEntity> createAll(final @RequestBody List<User> users) {
+        DeferredResult<ResponseEntity> response = new DeferredResult<>();
+
+        CompletableFuture<List<UserBulkResult>> future = userService.createAll(users);
+        future.whenCompleteAsync(
+                (result, throwable) -> {
+                    if (throwable != null) {
+                        ApiError error = ApiErrorBuilder.build(throwable);
+                        response.setErrorResult(new ResponseEntity<>(error, error.getStatus()));
+                    } else {
+                        response.setResult(new ResponseEntity<>(result, HttpStatus.OK));
+                    }
+                }
+        );
+        return response;
+    }
+
     /**
      * User retrieve endpoint
      *
      * @param userName {@link String} from URI path
+     * @param fields   {@link Set} of user fields to send back, from URI query (all but password if not informed)
      * @return {@link DeferredResult} for chunked HTTP response
      */
     @ApiOperation(value = "Retrieve user", response = User.class)
     @GetMapping(value = "api/user/{userName}")
     public @ResponseBody
-    DeferredResult<ResponseEntity> retrieve(final @PathVariable String userName) {
+    DeferredResult<ResponseEntity> retrieve(final @PathVariable String userName,
+                                            final @RequestParam(required = false) Set<String> fields) {
+        DeferredResult<ResponseEntity> response = new DeferredResult<>();
+
+        CompletableFuture<User> future = CollectionUtils.isEmpty(fields)
+                ? userService.retrieve(userName)
+                : userService.retrieve(userName, fields);
+        future.whenCompleteAsync(
+                (result, throwable) -> {
+                    if (throwable != null) {
+                        ApiError error = ApiErrorBuilder.build(throwable);
+                        response.setErrorResult(new ResponseEntity<>(error, error.getStatus()));
+                    } else {
+                        response.setResult(new ResponseEntity<>(UserViewBuilder.build(result, fields), HttpStatus.OK));
+                    }
+                }
+        );
+        return response;
+    }
+
+    /**
+     * User multi retrieve endpoint.
+     * <p>
+     * Response holds a result per requested name, in the same order, telling whether it was found
+     *
+     * @param userNames {@link List<String>} from request body
+     * @return {@link DeferredResult} for chunked HTTP response
+     */
+    @ApiOperation(value = "Retrieve users by name", response = UserLookupResult.class, responseContainer = "List")
+    @PostMapping("api/users/by-names")
+    public @ResponseBody
+    DeferredResult<ResponseEntity> retrieveAll(final @RequestBody List<String> userNames) {
         DeferredResult<ResponseEntity> response = new DeferredResult<>();
 
-        CompletableFuture<User> future = userService.retrieve(userName);
+        CompletableFuture<List<UserLookupResult>> future = userService.retrieveAll(userNames);
         future.whenCompleteAsync(
                 (result, throwable) -> {
                     if (throwable != null) {
@@ -113,6 +180,36 @@ public class UserCrudController {
         return response;
     }
 
+    /**
+     * User patch endpoint.
+     * <p>
+     * Only informed fields are changed
+     *
+     * @param changes  {@link Map} partial user from request body
+     * @param userName {@link String} from URI path
+     * @return {@link DeferredResult} for chunked HTTP response
+     */
+    @ApiOperation(value = "Patch user", response = User.class)
+    @PatchMapping(value = "api/user/{userName}")
+    public @ResponseBody
+    DeferredResult<ResponseEntity> patch(final @RequestBody Map<String, Object> changes,
+                                         final @PathVariable String userName) {
+        DeferredResult<ResponseEntity> response = new DeferredResult<>();
+
+        CompletableFuture<User> future = userService.patch(userName, changes);
+        future.whenCompleteAsync(
+                (result, throwable) -> {
+                    if (throwable != null) {
+                        ApiError error = ApiErrorBuilder.build(throwable);
+                        response.setErrorResult(new ResponseEntity<>(error, error.getStatus()));
+                    } else {
+                        response.setResult(new ResponseEntity<>(result, HttpStatus.OK));
+                    }
+                }
+        );
+        return response;
+    }
+
     /**
      * User delete endpoint
      *
@@ -0,0 +1,62 @@
+package com.creativedrive.user.control;
+
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.service.ExportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.Valid;
+
+import static com.creativedrive.user.control.UserImportController.NDJSON_VALUE;
+
+/**
+ * User export API controller
+ *
+ * <p>Format is negotiated by Accept header</p>
+ */
+@Api(authorizations = {@Authorization(value = "BasicAuth")})
+@RestController
+@RequestMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+public class UserExportController {
+
+    public static final String CSV_VALUE = "text/csv";
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * User export endpoint, as newline delimited JSON
+     *
+     * @param filter {@link UserFilter} from request body
+     * @return {@link ResponseEntity} with {@link StreamingResponseBody}
+     */
+    @ApiOperation(value = "Export users as newline delimited JSON")
+    @PostMapping(value = "api/users/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNdjson(final @RequestBody @Valid UserFilter filter) {
+        StreamingResponseBody body = output -> exportService.exportUsers(filter, ExportService.Format.NDJSON, output);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
+    /**
+     * User export endpoint, as CSV
+     *
+     * @param filter {@link UserFilter} from request body
+     * @return {@link ResponseEntity} with {@link StreamingResponseBody}
+     */
+    @ApiOperation(value = "Export users as CSV")
+    @PostMapping(value = "api/users/export", produces = CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCsv(final @RequestBody @Valid UserFilter filter) {
+        StreamingResponseBody body = output -> exportService.exportUsers(filter, ExportService.Format.CSV, output);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,44 @@
+package com.creativedrive.user.control;
+
+import com.creativedrive.user.service.ImportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * User import API controller
+ */
+@Api(authorizations = {@Authorization(value = "BasicAuth")})
+@RestController
+public class UserImportController {
+
+    /** Newline delimited JSON */
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+
+    @Autowired
+    private ImportService importService;
+
+    /**
+     * User import endpoint.
+     * <p>
+     * Request body is read while the response is streamed, one JSON line per progress step, error and the
+     * final summary
+     *
+     * @param request {@link HttpServletRequest} with newline delimited JSON users
+     * @return {@link ResponseEntity} with {@link StreamingResponseBody}
+     */
+    @ApiOperation(value = "Import users from newline delimited JSON")
+    @PostMapping(value = "api/users/import", consumes = NDJSON_VALUE, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importUsers(final HttpServletRequest request) {
+        StreamingResponseBody body = output -> importService.importUsers(request.getInputStream(), output);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+}
@@ -5,6 +5,7 @@ import com.creativedrive.user.domain.UserFilter;
 import com.creativedrive.user.domain.UserPage;
 import com.creativedrive.user.service.UserService;
 import com.creativedrive.user.utils.ApiErrorBuilder;
+import com.creativedrive.user.utils.UserViewBuilder;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
@@ -51,7 +52,8 @@ public class UserSearchController {
                         ApiError error = ApiErrorBuilder.build(throwable);
                         response.setErrorResult(new ResponseEntity<>(error, error.getStatus()));
                     } else {
-                        response.setResult(new ResponseEntity<>(result, HttpStatus.OK));
+                        response.setResult(new ResponseEntity<>(UserViewBuilder.build(result, filter.getSelect()),
+                                HttpStatus.OK));
                     }
                 }
         );
@@ -0,0 +1,33 @@
+package com.creativedrive.user.domain;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * Access token model
+ */
+@ApiModel
+public final class AccessToken {
+
+    public static final String TYPE = "Bearer";
+
+    private final String token;
+
+    private final Long expiresIn;
+
+    public AccessToken(String token, Long expiresIn) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+}
@@ -0,0 +1,42 @@
+package com.creativedrive.user.domain;
+
+import org.springframework.dao.DataAccessException;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unordered insert with users rejected for other reasons than duplicated unique keys.
+ * <p>
+ * Users neither duplicated nor failed were inserted (with their generated ids)
+ */
+public class BulkInsertException extends DataAccessException {
+
+    private final Set<Integer> duplicates;
+
+    private final Map<Integer, DataAccessException> failures;
+
+    public BulkInsertException(String message, Set<Integer> duplicates, Map<Integer, DataAccessException> failures) {
+        super(message);
+        this.duplicates = duplicates;
+        this.failures = failures;
+    }
+
+    /**
+     * Indexes of users rejected due duplicated unique keys
+     *
+     * @return {@link Set<Integer>}
+     */
+    public Set<Integer> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Indexes of users rejected for other reasons, with their causes
+     *
+     * @return {@link Map} of indexes to causes
+     */
+    public Map<Integer, DataAccessException> getFailures() {
+        return failures;
+    }
+}
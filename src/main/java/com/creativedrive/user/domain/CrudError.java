@@ -15,7 +15,11 @@ public enum CrudError {
 
     CONSTRAINT_ERROR,
 
+    CONFLICT_ERROR,
+
     IO_ERROR,
 
+    UNAVAILABLE_ERROR,
+
     ERROR
 }
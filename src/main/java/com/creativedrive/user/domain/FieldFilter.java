@@ -0,0 +1,117 @@
+package com.creativedrive.user.domain;
+
+import io.swagger.annotations.ApiModel;
+
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * User field filter model.
+ *
+ * <p>Informed operators must all match. Equality, prefix and in can be served by field indexes; contains and
+ * regex scan them.</p>
+ */
+@ApiModel
+public final class FieldFilter {
+
+    private String eq;
+
+    private String prefix;
+
+    @Size(max = 1000, message = "{filter.where.in.size}")
+    private List<String> in;
+
+    private String contains;
+
+    private String gte;
+
+    private String lte;
+
+    private Boolean exists;
+
+    private String regex;
+
+    private Boolean ignoreCase;
+
+    public String getEq() {
+        return eq;
+    }
+
+    public void setEq(String eq) {
+        this.eq = eq;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public List<String> getIn() {
+        return in;
+    }
+
+    public void setIn(List<String> in) {
+        this.in = in;
+    }
+
+    public String getContains() {
+        return contains;
+    }
+
+    public void setContains(String contains) {
+        this.contains = contains;
+    }
+
+    public String getGte() {
+        return gte;
+    }
+
+    public void setGte(String gte) {
+        this.gte = gte;
+    }
+
+    public String getLte() {
+        return lte;
+    }
+
+    public void setLte(String lte) {
+        this.lte = lte;
+    }
+
+    public Boolean getExists() {
+        return exists;
+    }
+
+    public void setExists(Boolean exists) {
+        this.exists = exists;
+    }
+
+    /**
+     * Raw regular expression, as legacy filter fields
+     *
+     * @return {@link String}
+     */
+    public String getRegex() {
+        return regex;
+    }
+
+    public void setRegex(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * Case insensitive matching, served by indexes for equality, in and prefix on name and email
+     *
+     * @return {@link Boolean}
+     */
+    public Boolean getIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public void setIgnoreCase(Boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+}
@@ -0,0 +1,20 @@
+package com.creativedrive.user.domain;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Login rejected due too many failed attempts
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    private final long retryAfter;
+
+    public LoginThrottledException(String message, long retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,13 +1,16 @@
 package com.creativedrive.user.domain;
 
 import com.creativedrive.user.domain.validation.Profile;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import javax.validation.constraints.*;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -57,6 +60,21 @@ public final class User {
     @Pattern(regexp = "^\\d{8,10}$", message = "{user.phone.format}")
     private String phone;
 
+    // Optimistic locking, incremented on every update
+    @Version
+    private Long version;
+
+    // Lower case shadow fields, for indexed case insensitive lookups
+    @Field
+    @Indexed
+    @JsonIgnore
+    private String nameKey;
+
+    @Field
+    @Indexed
+    @JsonIgnore
+    private String emailKey;
+
     public String getId() {
         return id;
     }
@@ -79,6 +97,7 @@ public final class User {
 
     public void setName(String name) {
         this.name = name;
+        this.nameKey = normalize(name);
     }
 
     public String getEmail() {
@@ -87,6 +106,7 @@ public final class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailKey = normalize(email);
     }
 
     public String getPassword() {
@@ -113,6 +133,34 @@ public final class User {
         this.phone = phone;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public String getNameKey() {
+        return nameKey;
+    }
+
+    @JsonIgnore
+    public String getEmailKey() {
+        return emailKey;
+    }
+
+    /**
+     * Normalize value for case insensitive lookups
+     *
+     * @param value {@link String} value, may be null
+     * @return {@link String} lower case value
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
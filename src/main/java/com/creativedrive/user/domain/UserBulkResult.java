@@ -0,0 +1,62 @@
+package com.creativedrive.user.domain;
+
+import io.swagger.annotations.ApiModel;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Bulk operation result model, one per requested user
+ */
+@ApiModel
+public final class UserBulkResult {
+
+    /**
+     * Item outcomes
+     */
+    public enum Status {
+
+        CREATED,
+
+        DUPLICATE,
+
+        INVALID,
+
+        FAILED
+    }
+
+    private final Integer index;
+
+    private final String name;
+
+    private final Status status;
+
+    private final Set<String> messages;
+
+    public UserBulkResult(Integer index, String name, Status status, Set<String> messages) {
+        this.index = index;
+        this.name = name;
+        this.status = status;
+        this.messages = messages;
+    }
+
+    public UserBulkResult(Integer index, String name, Status status) {
+        this(index, name, status, Collections.emptySet());
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Set<String> getMessages() {
+        return messages;
+    }
+}
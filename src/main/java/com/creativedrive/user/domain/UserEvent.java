@@ -0,0 +1,61 @@
+package com.creativedrive.user.domain;
+
+/**
+ * User change event model.
+ *
+ * <p>Published synchronously by {@link com.creativedrive.user.service.UserService} after each write, so
+ * any derived state (caches, tokens) is refreshed before the write completes.</p>
+ */
+public final class UserEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final String name;
+
+    private final Type type;
+
+    private final long timestamp;
+
+    private final boolean remote;
+
+    public UserEvent(String name, Type type) {
+        this(name, type, System.currentTimeMillis(), false);
+    }
+
+    public UserEvent(String name, Type type, long timestamp, boolean remote) {
+        this.name = name;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.remote = remote;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * When the change happened, on the node where it happened
+     *
+     * @return epoch millis
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Check if the change happened on other node
+     *
+     * @return true if received from {@link com.creativedrive.user.component.InvalidationBus}
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+}
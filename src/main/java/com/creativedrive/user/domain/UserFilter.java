@@ -3,12 +3,14 @@ package com.creativedrive.user.domain;
 import com.creativedrive.user.domain.validation.UserField;
 import io.swagger.annotations.ApiModel;
 
+import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -17,6 +19,21 @@ import java.util.Set;
 @ApiModel
 public final class UserFilter {
 
+    /**
+     * Total count modes
+     */
+    public enum Count {
+
+        /** Exact totals, one count query per search */
+        EXACT,
+
+        /** No totals, just whether there is a next page */
+        NONE,
+
+        /** Cached totals, refreshed on background */
+        ESTIMATED
+    }
+
     @PositiveOrZero(message = "{filter.page.invalid}")
     private Integer page;
 
@@ -27,12 +44,24 @@ public final class UserFilter {
     @NotNull(message = "{filter.fields.null}")
     private User fields;
 
-    @UserField(message = "{filter.fields.asc.invalid}")
+    // Versions are not compared as strings, neither sortable nor filterable
+    @UserField(message = "{filter.fields.asc.invalid}", exclude = "version")
     private Set<String> asc;
 
-    @UserField(message = "{filter.fields.desc.invalid}")
+    @UserField(message = "{filter.fields.desc.invalid}", exclude = "version")
     private Set<String> desc;
 
+    @UserField(message = "{filter.where.invalid}", exclude = {"password", "version"})
+    private Map<String, @Valid FieldFilter> where;
+
+    // Password hashes are never sent
+    @UserField(message = "{filter.select.invalid}", exclude = "password")
+    private Set<String> select;
+
+    private String after;
+
+    private Count count;
+
     private transient Boolean locked = Boolean.FALSE;
 
     public Integer getPage() {
@@ -105,6 +134,73 @@ public final class UserFilter {
         this.desc = desc;
     }
 
+    /**
+     * Typed field filters, on top of (legacy) regular expression fields
+     *
+     * @return {@link Map} of user field names to filters, may be null
+     */
+    public Map<String, FieldFilter> getWhere() {
+        return where;
+    }
+
+    public void setWhere(Map<String, FieldFilter> where) {
+        if (locked) {
+            return;
+        }
+        this.where = where;
+    }
+
+    /**
+     * Selected user fields (sparse fieldset), only these are read and sent back
+     *
+     * @return {@link Set} of user field names, all but password if null or empty
+     */
+    public Set<String> getSelect() {
+        return select;
+    }
+
+    public void setSelect(Set<String> select) {
+        if (locked) {
+            return;
+        }
+        this.select = select;
+    }
+
+    /**
+     * Continuation token, switches to keyset pagination (empty for first page)
+     *
+     * @return {@link String} token from {@link UserPage#getNext()}, null on page number mode
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        if (locked) {
+            return;
+        }
+        this.after = after;
+    }
+
+    /**
+     * Total count mode
+     *
+     * @return {@link Count}, exact if not informed
+     */
+    public Count getCount() {
+        if(count == null) {
+            count = Count.EXACT;
+        }
+        return count;
+    }
+
+    public void setCount(Count count) {
+        if (locked) {
+            return;
+        }
+        this.count = count;
+    }
+
     /**
      * Sanitize filter before using
      */
@@ -0,0 +1,36 @@
+package com.creativedrive.user.domain;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * Multi-get result model, one per requested user name
+ */
+@ApiModel
+public final class UserLookupResult {
+
+    private final String name;
+
+    private final User user;
+
+    public UserLookupResult(String name, User user) {
+        this.name = name;
+        this.user = user;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isFound() {
+        return user != null;
+    }
+
+    /**
+     * Found user, without password hash
+     *
+     * @return {@link User}, null if not found
+     */
+    public User getUser() {
+        return user;
+    }
+}
@@ -16,10 +16,47 @@ public final class UserPage {
 
     private List<User> content;
 
+    private final String next;
+
+    private final boolean hasNext;
+
+    private final boolean estimated;
+
     public UserPage(Integer totalPages, Integer number, List<User> content) {
+        this(totalPages, number, content, number + 1 < totalPages, false);
+    }
+
+    /**
+     * Page with estimated totals, or without totals at all
+     *
+     * @param totalPages {@link Integer} total pages, may be null
+     * @param number     {@link Integer} page number
+     * @param content    {@link List<User>} page users
+     * @param hasNext    whether there is a next page
+     * @param estimated  whether total pages is an estimate
+     */
+    public UserPage(Integer totalPages, Integer number, List<User> content, boolean hasNext, boolean estimated) {
         this.content = content;
         this.number = number;
         this.totalPages = totalPages;
+        this.next = null;
+        this.hasNext = hasNext;
+        this.estimated = estimated;
+    }
+
+    /**
+     * Keyset page, without page numbers
+     *
+     * @param content {@link List<User>} page users
+     * @param next    {@link String} continuation token, null on last page
+     */
+    public UserPage(List<User> content, String next) {
+        this.content = content;
+        this.number = null;
+        this.totalPages = null;
+        this.next = next;
+        this.hasNext = next != null;
+        this.estimated = false;
     }
 
     public Integer getNumber() {
@@ -30,6 +67,18 @@ public final class UserPage {
         return totalPages;
     }
 
+    public String getNext() {
+        return next;
+    }
+
+    public boolean getHasNext() {
+        return hasNext;
+    }
+
+    public boolean isEstimated() {
+        return estimated;
+    }
+
     public List<User> getContent() {
         return content;
     }
@@ -1,5 +1,6 @@
 package com.creativedrive.user.domain.validation;
 
+import com.creativedrive.user.component.UserFieldMapValidator;
 import com.creativedrive.user.component.UserFieldValidator;
 
 import javax.validation.Constraint;
@@ -12,10 +13,13 @@ import java.lang.annotation.*;
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
-@Constraint(validatedBy = UserFieldValidator.class)
+@Constraint(validatedBy = {UserFieldValidator.class, UserFieldMapValidator.class})
 public @interface UserField {
     String message() default "User field is not valid";
 
+    /** Known fields not allowed here */
+    String[] exclude() default { };
+
     Class<?>[] groups() default { };
 
     Class<? extends Payload>[] payload() default { };
@@ -6,6 +6,8 @@ import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,7 +16,8 @@ import java.util.Optional;
  * <p>Spring Data builds the implementation dynamically</p>
  */
 @Repository
-public interface UserRepository extends PagingAndSortingRepository<User, String>, QueryByExampleExecutor<User> {
+public interface UserRepository extends PagingAndSortingRepository<User, String>, QueryByExampleExecutor<User>,
+        UserRepositoryCustom {
 
     @Query(value = "{ 'name' : ?0 }" )
     Optional<User> findByName(String name);
@@ -22,4 +25,10 @@ public interface UserRepository extends PagingAndSortingRepository<User, String>
     @Query(value = "{ $and : [ { 'name' : ?0 }, { 'password' : ?1} ] }" )
     Optional<User> checkAuth(String name, String password);
 
+    @Query(value = "{ 'name' : { $in : ?0 } }" )
+    List<User> findByNameIn(Collection<String> names);
+
+    @Query(value = "{ 'name' : ?0 }", delete = true)
+    long deleteByName(String name);
+
 }
@@ -0,0 +1,108 @@
+package com.creativedrive.user.persistence;
+
+import com.creativedrive.user.domain.BulkInsertException;
+import com.creativedrive.user.domain.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * User repository operations beyond Spring Data derived queries
+ *
+ * @see UserRepositoryImpl
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Insert users with a single unordered batch, so rejected users never stop the others.
+     * <p>
+     * Inserted users get their generated ids
+     *
+     * @param users {@link List<User>} users to insert
+     * @return {@link Set<Integer>} indexes of users rejected due duplicated unique keys
+     * @throws BulkInsertException if users were rejected for other reasons (the others are still inserted)
+     */
+    Set<Integer> insertUnordered(List<User> users);
+
+    /**
+     * Update user in a single round trip, only if id, name and version still match the stored user.
+     * <p>
+     * Users without version skip the version check (last write wins). Version is incremented on success
+     *
+     * @param user {@link User} new values, with encrypted password
+     * @return {@link Optional<User>} updated user, empty if nothing matched
+     */
+    Optional<User> updateIfMatch(User user);
+
+    /**
+     * Set (or unset, if null) user fields in a single round trip, only if version still matches the stored user.
+     * <p>
+     * Version is incremented on success
+     *
+     * @param name    {@link String} user name
+     * @param version expected version, null to skip the version check
+     * @param fields  {@link Map} new values by field name
+     * @return {@link Optional<User>} updated user without password hash, empty if nothing matched
+     */
+    Optional<User> patch(String name, Long version, Map<String, Object> fields);
+
+    /**
+     * Find user by name, reading selected fields only
+     *
+     * @param name   {@link String} user name
+     * @param fields {@link Collection<String>} user field names
+     * @return {@link Optional<User>} partial user
+     */
+    Optional<User> findProjectedByName(String name, Collection<String> fields);
+
+    /**
+     * Find users by name with a single {@code $in} query, without password hashes
+     *
+     * @param names {@link Collection<String>} user names
+     * @return {@link List<User>} found users, in any order
+     */
+    List<User> findByNames(Collection<String> names);
+
+    /**
+     * Stream users matching a query through a single cursor, without password hashes.
+     * <p>
+     * Cursor never times out, so it must be closed
+     *
+     * @param query {@link Query} criteria and sort
+     * @return {@link CloseableIterator<User>}
+     */
+    CloseableIterator<User> stream(Query query);
+
+    /**
+     * Find users matching a query
+     *
+     * @param query {@link Query} criteria, sort and limit
+     * @return {@link List<User>}
+     */
+    List<User> findByQuery(Query query);
+
+    /**
+     * Count users matching a query
+     *
+     * @param query {@link Query} criteria
+     * @return number of users
+     */
+    long countByQuery(Query query);
+
+    /**
+     * Find a page of users matching a query, counting all of them
+     *
+     * @param query    {@link Query} criteria and sort
+     * @param pageable {@link Pageable} page
+     * @return {@link Page<User>}
+     */
+    Page<User> findPage(Query query, Pageable pageable);
+
+}
@@ -0,0 +1,201 @@
+package com.creativedrive.user.persistence;
+
+import com.creativedrive.user.domain.BulkInsertException;
+import com.creativedrive.user.domain.User;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * User repository custom operations implementation
+ *
+ * <p>Spring Data merges it into {@link UserRepository} by name convention</p>
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final String FIELD_ID = "_id";
+
+    private static final String FIELD_PASSWORD = "password";
+
+    private static final String FIELD_VERSION = "version";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Set<Integer> insertUnordered(List<User> users) {
+        if (users.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Document> documents = new ArrayList<>(users.size());
+        for (User user : users) {
+            // Same initial version as template inserts
+            if (user.getVersion() == null) {
+                user.setVersion(0L);
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(user, document);
+            documents.add(document);
+        }
+
+        Set<Integer> duplicates = new HashSet<>();
+        Map<Integer, DataAccessException> failures = new HashMap<>();
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                    .insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            // Outcome unknown for every user
+            if (e.getWriteConcernError() != null) {
+                throw translate(e);
+            }
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (error.getCode() == DUPLICATE_KEY) {
+                    duplicates.add(error.getIndex());
+                } else {
+                    failures.put(error.getIndex(), translate(error, e.getServerAddress()));
+                }
+            }
+        } catch (MongoException e) {
+            throw translate(e);
+        }
+
+        // Ids generated by driver
+        for (int i = 0; i < users.size(); i++) {
+            if (!duplicates.contains(i) && !failures.containsKey(i)) {
+                users.get(i).setId(documents.get(i).get(FIELD_ID).toString());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new BulkInsertException("Unable to insert " + failures.size() + " users", duplicates, failures);
+        }
+        return duplicates;
+    }
+
+    @Override
+    public Optional<User> updateIfMatch(User user) {
+        Criteria criteria = Criteria.where(FIELD_ID).is(user.getId()).and("name").is(user.getName());
+        if (user.getVersion() != null) {
+            criteria.and(FIELD_VERSION).is(user.getVersion());
+        }
+
+        // Same fields a full save would replace (name is the key, never changes)
+        Update update = new Update().inc(FIELD_VERSION, 1);
+        setOrUnset(update, "profile", user.getProfile());
+        setOrUnset(update, "email", user.getEmail());
+        setOrUnset(update, "emailKey", user.getEmailKey());
+        setOrUnset(update, "address", user.getAddress());
+        setOrUnset(update, "phone", user.getPhone());
+        setOrUnset(update, FIELD_PASSWORD, user.getPassword());
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    @Override
+    public Optional<User> patch(String name, Long version, Map<String, Object> fields) {
+        Criteria criteria = Criteria.where("name").is(name);
+        if (version != null) {
+            criteria.and(FIELD_VERSION).is(version);
+        }
+
+        Update update = new Update().inc(FIELD_VERSION, 1);
+        fields.forEach((field, value) -> setOrUnset(update, field, value));
+        if (fields.containsKey("email")) {
+            setOrUnset(update, "emailKey", User.normalize((String) fields.get("email")));
+        }
+
+        // Updated user is sent back without hash
+        Query query = new Query(criteria);
+        query.fields().exclude(FIELD_PASSWORD);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    @Override
+    public Optional<User> findProjectedByName(String name, Collection<String> fields) {
+        Query query = new Query(Criteria.where("name").is(name));
+        fields.forEach(field -> query.fields().include(field));
+        return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+    }
+
+    @Override
+    public List<User> findByNames(Collection<String> names) {
+        Query query = new Query(Criteria.where("name").in(names));
+        query.fields().exclude(FIELD_PASSWORD).exclude("nameKey").exclude("emailKey");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public CloseableIterator<User> stream(Query query) {
+        query.noCursorTimeout().fields().exclude(FIELD_PASSWORD);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    @Override
+    public List<User> findByQuery(Query query) {
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public long countByQuery(Query query) {
+        return mongoTemplate.count(query, User.class);
+    }
+
+    @Override
+    public Page<User> findPage(Query query, Pageable pageable) {
+        // Count criteria only, regardless of page
+        Query countQuery = new BasicQuery(query.getQueryObject());
+        List<User> content = mongoTemplate.find(query.with(pageable), User.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(countQuery, User.class));
+    }
+
+    private static void setOrUnset(Update update, String field, Object value) {
+        if (value == null) {
+            update.unset(field);
+        } else {
+            update.set(field, value);
+        }
+    }
+
+    private DataAccessException translate(BulkWriteError error, ServerAddress address) {
+        MongoWriteException e = new MongoWriteException(error, address);
+        DataAccessException translated = mongoTemplate.getExceptionTranslator().translateExceptionIfPossible(e);
+        return translated == null ? new DataIntegrityViolationException(error.getMessage(), e) : translated;
+    }
+
+    private RuntimeException translate(MongoException e) {
+        DataAccessException translated = mongoTemplate.getExceptionTranslator().translateExceptionIfPossible(e);
+        return translated == null ? e : translated;
+    }
+}
@@ -0,0 +1,66 @@
+package com.creativedrive.user.persistence.changelogs;
+
+import com.creativedrive.user.domain.User;
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database change logs V2
+ */
+@ChangeLog(order = "002")
+public final class ChangeLogV2 extends AbstractChangeLog {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Backfill lower case name and email shadow fields, in batches
+     *
+     * @param database {@link MongoDatabase}
+     */
+    @ChangeSet(order = "001", id = "Backfill User Keys", author = "cadu.goncalves")
+    public void backfillUserKeys(MongoDatabase database) {
+        MongoCollection<Document> usersCol = database.getCollection("users");
+
+        List<WriteModel<Document>> batch = new ArrayList<>(BATCH_SIZE);
+        try (MongoCursor<Document> cursor = usersCol.find(Filters.exists("nameKey", false))
+                .projection(Projections.include("name", "email"))
+                .batchSize(BATCH_SIZE)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document user = cursor.next();
+                Bson keys = Updates.combine(
+                        Updates.set("nameKey", User.normalize(user.getString("name"))),
+                        Updates.set("emailKey", User.normalize(user.getString("email"))));
+                batch.add(new UpdateOneModel<>(Filters.eq("_id", user.get("_id")), keys));
+
+                if (batch.size() == BATCH_SIZE) {
+                    usersCol.bulkWrite(batch, new BulkWriteOptions().ordered(false));
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            usersCol.bulkWrite(batch, new BulkWriteOptions().ordered(false));
+        }
+
+        // Same indexes (and names) mapped on entity
+        usersCol.createIndex(Indexes.ascending("nameKey"), new IndexOptions().name("nameKey"));
+        usersCol.createIndex(Indexes.ascending("emailKey"), new IndexOptions().name("emailKey"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.creativedrive.user.persistence.changelogs;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Database change logs V3
+ */
+@ChangeLog(order = "003")
+public final class ChangeLogV3 extends AbstractChangeLog {
+
+    /**
+     * Supported search indexes: sorts on any field (plus id tie breaker of keyset pages), alone or
+     * after a profile equality filter. Name and email are unique, so they need no tie breaker.
+     */
+    private static final List<IndexModel> SEARCH_INDEXES = Arrays.asList(
+            index("profile_name", Indexes.ascending("profile", "name")),
+            index("profile_email", Indexes.ascending("profile", "email")),
+            index("profile_address_id", Indexes.ascending("profile", "address", "_id")),
+            index("profile_phone_id", Indexes.ascending("profile", "phone", "_id")),
+            index("profile_id", Indexes.ascending("profile", "_id")),
+            index("address_id", Indexes.ascending("address", "_id")),
+            index("phone_id", Indexes.ascending("phone", "_id"))
+    );
+
+    /**
+     * Create search indexes
+     *
+     * @param database {@link MongoDatabase}
+     */
+    @ChangeSet(order = "001", id = "Create Search Indexes", author = "cadu.goncalves")
+    public void createSearchIndexes(MongoDatabase database) {
+        MongoCollection<Document> usersCol = database.getCollection("users");
+        usersCol.createIndexes(SEARCH_INDEXES);
+    }
+
+    private static IndexModel index(String name, Bson keys) {
+        // Built on background, not to block a live collection
+        return new IndexModel(keys, new IndexOptions().name(name).background(true));
+    }
+}
@@ -0,0 +1,137 @@
+package com.creativedrive.user.service;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.persistence.UserRepository;
+import com.creativedrive.user.utils.FilterUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Streaming users export service.
+ *
+ * <p>Users are read through a single datastore cursor and written one by one, so memory stays constant whatever
+ * the collection size. Password hashes are never read nor written.</p>
+ */
+@Service
+public class ExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportService.class);
+
+    // Exported fields, in order
+    private static final List<String> FIELDS = Arrays.asList("id", "profile", "name", "email", "address", "phone");
+
+    private static final List<Function<User, String>> VALUES = Arrays.asList(
+            User::getId, User::getProfile, User::getName, User::getEmail, User::getAddress, User::getPhone);
+
+    /**
+     * Export formats
+     */
+    public enum Format {
+
+        NDJSON,
+
+        CSV
+    }
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    /**
+     * Export users matching filter fields
+     *
+     * @param filter {@link UserFilter} filter values (pagination is ignored)
+     * @param format {@link Format} output format
+     * @param output {@link OutputStream} output
+     * @throws IOException on output failure
+     */
+    @Secured({UserProfile.ADMIN, UserProfile.USER})
+    public void exportUsers(final UserFilter filter, final Format format, final OutputStream output)
+            throws IOException {
+        LOGGER.info("Export users: " + format);
+
+        // Same filter semantics as search
+        long count = 0;
+        try (CloseableIterator<User> users = userRepo.stream(FilterUtils.buildQuery(filter))) {
+            if (format == Format.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                writer.write(String.join(",", FIELDS));
+                writer.write("\r\n");
+                while (users.hasNext()) {
+                    writeCsv(writer, users.next());
+                    count++;
+                }
+                writer.flush();
+            } else {
+                JsonGenerator generator = mapper.getFactory().createGenerator(output);
+                // Lines are the separators
+                generator.setRootValueSeparator(null);
+                while (users.hasNext()) {
+                    writeJson(generator, users.next());
+                    count++;
+                }
+                generator.flush();
+            }
+        }
+        LOGGER.info("Exported users: " + count);
+    }
+
+    private static void writeJson(JsonGenerator generator, User user) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < FIELDS.size(); i++) {
+            String value = VALUES.get(i).apply(user);
+            if (value != null) {
+                generator.writeStringField(FIELDS.get(i), value);
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static void writeCsv(Writer writer, User user) throws IOException {
+        for (int i = 0; i < VALUES.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(VALUES.get(i).apply(user)));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Escape CSV value (RFC 4180)
+     *
+     * @param value {@link String} raw value, may be null
+     * @return escaped value
+     */
+    static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
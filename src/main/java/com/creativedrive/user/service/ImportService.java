@@ -0,0 +1,433 @@
+package com.creativedrive.user.service;
+
+import com.creativedrive.user.component.PasswordHasher;
+import com.creativedrive.user.domain.BulkInsertException;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.persistence.UserRepository;
+import com.creativedrive.user.utils.MessageUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming users import service.
+ *
+ * <p>Reads newline delimited JSON users incrementally, validating each line, and pipelines batches of valid users
+ * (hashing plus unordered insert) with a bounded number of batches in flight, so memory stays flat whatever the
+ * input size. Progress, per line errors and a final summary are written as newline delimited JSON.</p>
+ */
+@Service
+public class ImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportService.class);
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private TaskExecutor executor;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Value("${app.config.import.batch:1000}")
+    private int batchSize;
+
+    @Value("${app.config.import.window:4}")
+    private int window;
+
+    @Value("${app.config.import.line:65536}")
+    private int maxLine;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (batchSize <= 0) {
+            batchSize = 1000;
+        }
+
+        if (window <= 0) {
+            window = 4;
+        }
+
+        if (maxLine <= 0) {
+            maxLine = 65536;
+        }
+    }
+
+    /**
+     * Import users
+     *
+     * @param input  {@link InputStream} newline delimited JSON users
+     * @param output {@link OutputStream} newline delimited JSON progress, errors and summary
+     * @throws IOException on input or output failure
+     */
+    @Secured(UserProfile.ADMIN)
+    public void importUsers(final InputStream input, final OutputStream output) throws IOException {
+        LOGGER.info("Import users");
+
+        Import task = new Import(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        LineInputStream lines = new LineInputStream(input, maxLine);
+        ObjectReader userReader = mapper.readerFor(User.class);
+
+        List<User> batch = new ArrayList<>();
+        List<Long> batchLines = new ArrayList<>();
+        long lineNumber = 0;
+        try {
+            while (lines.nextLine()) {
+                lineNumber++;
+
+                // Parse & validate
+                User user;
+                try {
+                    user = readUser(userReader, lines);
+                } catch (IOException e) {
+                    if (!lines.isTooLong() && !(e instanceof JsonProcessingException)) {
+                        throw e;
+                    }
+                    task.rejected(lineNumber, MessageUtils.getMessage("messages",
+                            lines.isTooLong() ? "user.import.line" : "user.import.parse"));
+                    continue;
+                }
+                if (user == null) {
+                    continue;
+                }
+                Set<ConstraintViolation<User>> violations = validator.validate(user);
+                if (!violations.isEmpty()) {
+                    task.rejected(lineNumber, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.toSet()));
+                    continue;
+                }
+
+                batch.add(user);
+                batchLines.add(lineNumber);
+                if (batch.size() == batchSize) {
+                    task.submit(batch, batchLines);
+                    batch = new ArrayList<>();
+                    batchLines = new ArrayList<>();
+                }
+            }
+            task.submit(batch, batchLines);
+        } finally {
+            // Wait for batches in flight
+            task.inFlight.acquireUninterruptibly(window);
+        }
+
+        task.summary(lineNumber);
+    }
+
+    /**
+     * Read the user on the current line, streaming it straight from the input
+     *
+     * @return null on blank line
+     * @throws JsonProcessingException if the line is not a single user JSON
+     */
+    private User readUser(ObjectReader userReader, LineInputStream lines) throws IOException {
+        try (MappingIterator<User> values = userReader.readValues(lines)) {
+            if (!values.hasNextValue()) {
+                return null;
+            }
+            User user = values.nextValue();
+            if (user == null || values.hasNextValue()) {
+                throw JsonMappingException.from(values.getParser(), "Not a single user");
+            }
+            return user;
+        }
+    }
+
+    /**
+     * Input split in lines, each line read as a whole input
+     */
+    private static final class LineInputStream extends InputStream {
+
+        private final InputStream input;
+
+        private final int maxLine;
+
+        private final byte[] buffer = new byte[8192];
+
+        private int position;
+
+        private int limit;
+
+        private int length;
+
+        private boolean endOfLine = true;
+
+        private LineInputStream(InputStream input, int maxLine) {
+            this.input = input;
+            this.maxLine = maxLine;
+        }
+
+        /**
+         * Move to next line, skipping what is left of the current one
+         *
+         * @return false on end of input
+         */
+        private boolean nextLine() throws IOException {
+            while (!endOfLine && (position < limit || fill())) {
+                endOfLine = buffer[position++] == '\n';
+            }
+            length = 0;
+            endOfLine = position == limit && !fill();
+            return !endOfLine;
+        }
+
+        /**
+         * @return true if the current line is longer than allowed
+         */
+        private boolean isTooLong() {
+            return length > maxLine;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] value = new byte[1];
+            return read(value, 0, 1) < 0 ? -1 : value[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int count) throws IOException {
+            if (endOfLine || (position == limit && !fill())) {
+                endOfLine = true;
+                return -1;
+            }
+
+            int end = position;
+            while (end < limit && end - position < count && buffer[end] != '\n') {
+                end++;
+            }
+            int read = end - position;
+            System.arraycopy(buffer, position, bytes, offset, read);
+            position = end;
+            if (end < limit && buffer[end] == '\n' && read < count) {
+                position++;
+                endOfLine = true;
+            }
+
+            length += read;
+            if (isTooLong()) {
+                throw new IOException("Line is too long");
+            }
+            return read == 0 && endOfLine ? -1 : read;
+        }
+
+        @Override
+        public void close() {
+            // Input owned by the caller, lines are closed one by one
+        }
+
+        private boolean fill() throws IOException {
+            position = 0;
+            limit = Math.max(input.read(buffer, 0, buffer.length), 0);
+            return limit > 0;
+        }
+    }
+
+    /**
+     * Import task state
+     */
+    private final class Import {
+
+        private final Writer writer;
+
+        private final Semaphore inFlight = new Semaphore(window);
+
+        private final long start = System.currentTimeMillis();
+
+        private final AtomicLong created = new AtomicLong();
+
+        private final AtomicLong duplicates = new AtomicLong();
+
+        private final AtomicLong invalid = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile IOException outputError;
+
+        private Import(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void submit(List<User> users, List<Long> lines) throws IOException {
+            if (users.isEmpty()) {
+                return;
+            }
+
+            // Backpressure, stop reading while window is full
+            inFlight.acquireUninterruptibly();
+            try {
+                checkOutput();
+            } catch (IOException e) {
+                inFlight.release();
+                throw e;
+            }
+
+            CompletableFuture<Set<Integer>> inserted;
+            try {
+                List<String> passwords = users.stream().map(User::getPassword).collect(Collectors.toList());
+                inserted = passwordHasher.encryptAll(passwords).thenApplyAsync(encryptedPwds -> {
+                    for (int i = 0; i < users.size(); i++) {
+                        users.get(i).setPassword(encryptedPwds.get(i));
+                        users.get(i).setId(null);
+                        users.get(i).setVersion(null);
+                    }
+                    return userRepo.insertUnordered(users);
+                }, executor);
+            } catch (RuntimeException e) {
+                // Rejected right away (executor saturated), report it as a failed batch
+                inserted = new CompletableFuture<>();
+                inserted.completeExceptionally(e);
+            }
+
+            inserted.whenComplete((rejected, throwable) -> {
+                try {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    Map<Integer, ?> failures = Collections.emptyMap();
+                    if (cause instanceof BulkInsertException) {
+                        // Some users rejected, the others inserted
+                        LOGGER.error("Import batch partially failed: " + cause.getMessage());
+                        rejected = ((BulkInsertException) cause).getDuplicates();
+                        failures = ((BulkInsertException) cause).getFailures();
+                    } else if (cause != null) {
+                        LOGGER.error("Import batch failed: " + cause.getMessage());
+                        failed.addAndGet(users.size());
+                        String message = MessageUtils.getMessage("messages", "user.import.batch");
+                        for (Long line : lines) {
+                            write(error(line, Collections.singleton(message)));
+                        }
+                        return;
+                    }
+
+                    String message = MessageUtils.getMessage("messages", "user.create.denied");
+                    String failure = MessageUtils.getMessage("messages", "user.create.failed");
+                    for (int i = 0; i < users.size(); i++) {
+                        if (rejected.contains(i)) {
+                            duplicates.incrementAndGet();
+                            write(error(lines.get(i), Collections.singleton(message)));
+                        } else if (failures.containsKey(i)) {
+                            failed.incrementAndGet();
+                            write(error(lines.get(i), Collections.singleton(failure)));
+                        } else {
+                            created.incrementAndGet();
+                            // Notify change
+                            publisher.publishEvent(new UserEvent(users.get(i).getName(), UserEvent.Type.CREATED));
+                        }
+                    }
+                    write(progress(lines.get(lines.size() - 1)));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        private void rejected(long line, String message) throws IOException {
+            rejected(line, Collections.singleton(message));
+        }
+
+        private void rejected(long line, Collection<String> messages) throws IOException {
+            invalid.incrementAndGet();
+            checkOutput();
+            write(error(line, messages));
+        }
+
+        private void summary(long lines) throws IOException {
+            long millis = Math.max(1, System.currentTimeMillis() - start);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("type", "summary");
+            summary.put("lines", lines);
+            summary.put("created", created.get());
+            summary.put("duplicates", duplicates.get());
+            summary.put("invalid", invalid.get());
+            summary.put("failed", failed.get());
+            summary.put("millis", millis);
+            summary.put("docsPerSecond", created.get() * 1000 / millis);
+            write(summary);
+            checkOutput();
+        }
+
+        private Map<String, Object> progress(long line) {
+            Map<String, Object> progress = new LinkedHashMap<>();
+            progress.put("type", "progress");
+            progress.put("line", line);
+            progress.put("created", created.get());
+            return progress;
+        }
+
+        private Map<String, Object> error(long line, Collection<String> messages) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("type", "error");
+            error.put("line", line);
+            error.put("messages", messages);
+            return error;
+        }
+
+        private void write(Map<String, Object> value) {
+            synchronized (writer) {
+                if (outputError != null) {
+                    return;
+                }
+                try {
+                    writer.write(mapper.writeValueAsString(value));
+                    writer.write('\n');
+                    writer.flush();
+                } catch (IOException e) {
+                    // Client gone, stop reading
+                    outputError = e;
+                }
+            }
+        }
+
+        private void checkOutput() throws IOException {
+            if (outputError != null) {
+                throw outputError;
+            }
+        }
+    }
+}
@@ -1,28 +1,48 @@
 package com.creativedrive.user.service;
 
+import com.creativedrive.user.component.AuthCache;
+import com.creativedrive.user.component.PasswordHasher;
 import com.creativedrive.user.domain.User;
 import com.creativedrive.user.persistence.UserRepository;
-import org.jasypt.util.password.PasswordEncryptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Base64;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Login service implementation.
+ *
+ * <p>Concurrent verifications of the same credentials are collapsed into a single hash and datastore lookup.</p>
  */
 @Service
-public class LoginService {
+public class LoginService implements MeterBinder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LoginService.class);
 
+    private static final char KEY_SEPARATOR = '\u0000';
+
     @Autowired
     private UserRepository userRepo;
 
     @Autowired
-    private PasswordEncryptor encryptor;
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private AuthCache authCache;
+
+    private final ConcurrentMap<String, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder collapsed = new LongAdder();
 
     /**
      * Verify if access credentials are valid.
@@ -34,9 +54,58 @@ public class LoginService {
     public Optional<User> checkAuth(String name, String password) {
         LOGGER.info("Login for: " + name);
 
-        // Encrypt the password
-        final String encryptedPwd = encryptor.encryptPassword(password);
+        // Check verified credentials
+        final byte[] credentials = authCache.digest(name, password);
+        Optional<User> cached = authCache.get(name, credentials);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        // Join identical verification in flight, if any
+        final String key = name + KEY_SEPARATOR + Base64.getEncoder().encodeToString(credentials);
+        final CompletableFuture<Optional<User>> flight = new CompletableFuture<>();
+        final CompletableFuture<Optional<User>> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            collapsed.increment();
+            return leader.join();
+        }
+
+        try {
+            Optional<User> user = verify(name, password, credentials);
+            flight.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Results (and failures) are shared only while in flight
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Number of verifications collapsed into one in flight
+     *
+     * @return collapsed count
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.collapsed", collapsed, LongAdder::doubleValue)
+                .description("Login verifications collapsed into one in flight")
+                .register(registry);
+    }
+
+    private Optional<User> verify(String name, String password, byte[] credentials) {
+        // Encrypt the password (on hashing pool, fails fast if saturated)
+        final long stamp = authCache.stamp();
+        final String encryptedPwd = passwordHasher.encrypt(password).join();
         // Find
-        return userRepo.checkAuth(name, encryptedPwd);
+        Optional<User> user = userRepo.checkAuth(name, encryptedPwd);
+        user.ifPresent(value -> authCache.put(name, credentials, value, stamp));
+        return user;
     }
 }
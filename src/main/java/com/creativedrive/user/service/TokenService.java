@@ -0,0 +1,193 @@
+package com.creativedrive.user.service;
+
+import com.creativedrive.user.domain.AccessToken;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token service implementation.
+ *
+ * <p>Tokens are signed with HMAC and verified locally, without datastore access. Each token carries the user
+ * token generation, which is bumped on user changes in order to revoke previously issued tokens.</p>
+ */
+@Service
+public class TokenService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final String SEPARATOR = "\n";
+
+    @Value("${app.config.token.secret:}")
+    private String secret;
+
+    @Value("${app.config.token.ttl:900}")
+    private long ttl;
+
+    private SecretKeySpec key;
+
+    private ThreadLocal<Mac> mac;
+
+    private Cache<String, Long> generations;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (ttl <= 0) {
+            ttl = 900;
+        }
+
+        byte[] keyBytes;
+        if (StringUtils.isEmpty(secret)) {
+            // Tokens will be valid only for this node
+            LOGGER.warn("No token secret defined, using a random one");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+        mac = ThreadLocal.withInitial(this::newMac);
+
+        // Tokens older than one TTL are already expired, so are their generations
+        generations = Caffeine.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Issue new access token
+     *
+     * @param name    {@link String} user name
+     * @param profile {@link String} user profile
+     * @return {@link AccessToken}
+     */
+    public AccessToken issue(String name, String profile) {
+        long expiresAt = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + ttl;
+        String payload = String.join(SEPARATOR, name, profile,
+                String.valueOf(generation(name)), String.valueOf(expiresAt));
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        String token = encoder.encodeToString(data) + "." + encoder.encodeToString(sign(data));
+        return new AccessToken(token, ttl);
+    }
+
+    /**
+     * Verify access token
+     *
+     * @param token {@link String} token value
+     * @return {@link Optional<User>} with token name and profile, empty if token is not valid
+     */
+    public Optional<User> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+
+        byte[] data;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            data = decoder.decode(token.substring(0, dot));
+            signature = decoder.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        // Check signature
+        if (!MessageDigest.isEqual(sign(data), signature)) {
+            return Optional.empty();
+        }
+
+        String[] values = new String(data, StandardCharsets.UTF_8).split(SEPARATOR);
+        if (values.length != 4) {
+            return Optional.empty();
+        }
+
+        // Check expiration and revocation
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        if (Long.parseLong(values[3]) < now || Long.parseLong(values[2]) < generation(values[0])) {
+            return Optional.empty();
+        }
+
+        User user = new User();
+        user.setName(values[0]);
+        user.setProfile(values[1]);
+        return Optional.of(user);
+    }
+
+    /**
+     * Revoke all tokens issued for an user
+     *
+     * @param name {@link String} user name
+     */
+    public void revoke(String name) {
+        revoke(name, System.currentTimeMillis());
+    }
+
+    /**
+     * Revoke all tokens issued for an user before some instant
+     * <p>
+     * Generations are time based, so they grow across restarts and match between nodes
+     *
+     * @param name {@link String} user name
+     * @param at   epoch millis of the change
+     */
+    public void revoke(String name, long at) {
+        generations.asMap().merge(name, at, (last, value) -> Math.max(last + 1, value));
+    }
+
+    /**
+     * Revoke tokens of changed users
+     *
+     * @param event {@link UserEvent}
+     */
+    @EventListener
+    public void onUserEvent(UserEvent event) {
+        if (event.getType() != UserEvent.Type.CREATED) {
+            revoke(event.getName(), event.getTimestamp());
+        }
+    }
+
+    private long generation(String name) {
+        Long value = generations.getIfPresent(name);
+        return value == null ? 0L : value;
+    }
+
+    private byte[] sign(byte[] data) {
+        return mac.get().doFinal(data);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
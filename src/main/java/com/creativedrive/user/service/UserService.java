@@ -1,30 +1,55 @@
 package com.creativedrive.user.service;
 
+import com.creativedrive.user.component.CountCache;
+import com.creativedrive.user.component.CreateBatcher;
+import com.creativedrive.user.component.PasswordHasher;
+import com.creativedrive.user.component.SearchCache;
+import com.creativedrive.user.component.UserCache;
+import com.creativedrive.user.component.UserReplica;
 import com.creativedrive.user.domain.*;
 import com.creativedrive.user.persistence.UserRepository;
 import com.creativedrive.user.utils.FilterUtils;
 import com.creativedrive.user.utils.MessageUtils;
-import org.jasypt.util.password.PasswordEncryptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Example;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
-
+import org.springframework.util.CollectionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-
-import static org.springframework.data.domain.ExampleMatcher.StringMatcher;
-import static org.springframework.data.domain.ExampleMatcher.matching;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * User service implementation.
@@ -34,17 +59,101 @@ public class UserService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
 
+    private static final String FIELD_PASSWORD = "password";
+
+    private static final String FIELD_VERSION = "version";
+
+    // Name is the key, id never changes
+    private static final Set<String> PATCH_FIELDS = new HashSet<>(
+            Arrays.asList("profile", "email", FIELD_PASSWORD, "address", "phone"));
+
+    // Enough to explain a failed conditional write, without reading the hash
+    private static final Set<String> MISMATCH_FIELDS = Collections.singleton("id");
+
     @Autowired
     private UserRepository userRepo;
 
     @Autowired
-    private PasswordEncryptor encryptor;
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private CreateBatcher createBatcher;
 
     @Autowired
     private TaskExecutor executor;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserReplica userReplica;
+
+    @Autowired
+    private CountCache countCache;
+
+    @Autowired
+    private SearchCache searchCache;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${app.config.search.coalesce:true}")
+    private boolean coalesce;
+
+    // Searches in flight by filter fingerprint
+    private final Map<String, CompletableFuture<UserPage>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    @Value("${app.config.bulk.max:10000}")
+    private int bulkMax;
+
+    @Value("${app.config.bulk.chunk:1000}")
+    private int bulkChunk;
+
+    @Value("${app.config.lookup.max:1000}")
+    private int lookupMax;
+
+    @Value("${app.config.lookup.batch:200}")
+    private int lookupBatch;
+
+    @PostConstruct
+    void postConstruct() {
+        /*
+           Avoid misconfiguration
+        */
+        if (bulkMax <= 0) {
+            bulkMax = 10000;
+        }
+
+        if (bulkChunk <= 0) {
+            bulkChunk = 1000;
+        }
+
+        if (lookupMax <= 0) {
+            lookupMax = 1000;
+        }
+
+        if (lookupBatch <= 0) {
+            lookupBatch = 200;
+        }
+
+        FunctionCounter.builder("users.search.deduplicated", deduplicated, LongAdder::doubleValue)
+                .description("Searches served by an identical search in flight")
+                .register(registry);
+    }
+
     /**
-     * Create new user
+     * Create new user.
+     * <p>
+     * Relies on unique indexes to reject duplicates (no previous lookup). When enabled, concurrent creates are
+     * inserted together by {@link CreateBatcher}
      *
      * @param user {@link User} entity to create
      * @return {@link CompletableFuture<User>}
@@ -53,19 +162,120 @@ public class UserService {
     public CompletableFuture<User> create(final User user) {
         return CompletableFuture.supplyAsync(() -> {
             LOGGER.info("Create user: " + user.getName());
-
-            Optional<User> findResult = userRepo.findByName(user.getName());
-            if (findResult.isPresent()) {
+            return user.getPassword();
+        }, executor).thenCompose(passwordHasher::encrypt).thenCompose(encryptedPwd -> {
+            // Insert with encrypted password
+            user.setPassword(encryptedPwd);
+            user.setId(null);
+            user.setVersion(null);
+            if (createBatcher.isRunning()) {
+                return createBatcher.insert(user);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                userRepo.save(user);
+                return user;
+            }, executor);
+        }).thenApply(created -> {
+            // Notify change
+            publisher.publishEvent(new UserEvent(created.getName(), UserEvent.Type.CREATED));
+            return created;
+        }).exceptionally(throwable -> {
+            LOGGER.error(throwable.getMessage());
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause instanceof DuplicateKeyException) {
                 // Already exists
                 String message = MessageUtils.getMessage("messages", "user.create.denied");
+                throw new UserException(message, cause, CrudError.CREATE_ERROR);
+            }
+            throw translateException(throwable);
+        });
+    }
+
+    /**
+     * Create new users in bulk.
+     * <p>
+     * Users are validated one by one, passwords hashed in parallel and valid users inserted with unordered
+     * batches, relying on unique indexes to reject duplicates (no previous lookup)
+     *
+     * @param users {@link List<User>} entities to create
+     * @return {@link CompletableFuture<List>} with one {@link UserBulkResult} per user, in the same order
+     * @throws UserException if bulk size is over the limit
+     */
+    @Secured(UserProfile.ADMIN)
+    public CompletableFuture<List<UserBulkResult>> createAll(final List<User> users) {
+        final UserBulkResult[] results = new UserBulkResult[users.size()];
+        final List<User> valid = new ArrayList<>();
+        final List<Integer> validIndexes = new ArrayList<>();
+
+        return CompletableFuture.supplyAsync(() -> {
+            LOGGER.info("Create users: " + users.size());
+
+            if (users.size() > bulkMax) {
+                String message = MessageUtils.getMessage("messages", "user.bulk.size");
                 throw new UserException(message, CrudError.CREATE_ERROR);
             }
 
-            // Encrypt password and save
-            user.setPassword(encryptor.encryptPassword(user.getPassword()));
-            user.setId(null);
-            userRepo.save(user);
-            return user;
+            // Validate
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                if (user == null) {
+                    Set<String> messages = Collections.singleton(MessageUtils.getMessage("messages", "user.null"));
+                    results[i] = new UserBulkResult(i, null, UserBulkResult.Status.INVALID, messages);
+                    continue;
+                }
+
+                Set<ConstraintViolation<User>> violations = validator.validate(user);
+                if (!violations.isEmpty()) {
+                    Set<String> messages = violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.toSet());
+                    results[i] = new UserBulkResult(i, user.getName(), UserBulkResult.Status.INVALID, messages);
+                    continue;
+                }
+
+                valid.add(user);
+                validIndexes.add(i);
+            }
+
+            return valid.stream().map(User::getPassword).collect(Collectors.toList());
+        }, executor).thenCompose(passwordHasher::encryptAll).thenApplyAsync(encryptedPwds -> {
+            for (int i = 0; i < valid.size(); i++) {
+                valid.get(i).setPassword(encryptedPwds.get(i));
+                valid.get(i).setId(null);
+                valid.get(i).setVersion(null);
+            }
+
+            // Save in chunks
+            for (int from = 0; from < valid.size(); from += bulkChunk) {
+                int to = Math.min(valid.size(), from + bulkChunk);
+                Set<Integer> duplicates;
+                Map<Integer, DataAccessException> failures = Collections.emptyMap();
+                try {
+                    duplicates = userRepo.insertUnordered(valid.subList(from, to));
+                } catch (BulkInsertException e) {
+                    // Some users rejected, the others inserted
+                    LOGGER.error("Create users partially failed: " + e.getMessage());
+                    duplicates = e.getDuplicates();
+                    failures = e.getFailures();
+                }
+                for (int i = from; i < to; i++) {
+                    User user = valid.get(i);
+                    int index = validIndexes.get(i);
+                    if (duplicates.contains(i - from)) {
+                        results[index] = new UserBulkResult(index, user.getName(), UserBulkResult.Status.DUPLICATE,
+                                Collections.singleton(MessageUtils.getMessage("messages", "user.create.denied")));
+                    } else if (failures.containsKey(i - from)) {
+                        results[index] = new UserBulkResult(index, user.getName(), UserBulkResult.Status.FAILED,
+                                Collections.singleton(MessageUtils.getMessage("messages", "user.create.failed")));
+                    } else {
+                        results[index] = new UserBulkResult(index, user.getName(), UserBulkResult.Status.CREATED);
+                        // Notify change
+                        publisher.publishEvent(new UserEvent(user.getName(), UserEvent.Type.CREATED));
+                    }
+                }
+            }
+
+            return Arrays.asList(results);
         }, executor).exceptionally(throwable -> {
             LOGGER.error(throwable.getMessage());
             throw translateException(throwable);
@@ -84,7 +294,7 @@ public class UserService {
         return CompletableFuture.supplyAsync(() -> {
             LOGGER.info("Retrieve user: " + userName);
 
-            Optional<User> findResult = userRepo.findByName(userName);
+            Optional<User> findResult = userReplica.isReady() ? userReplica.get(userName) : userCache.get(userName);
             if (!findResult.isPresent()) {
                 // Not found
                 String message = MessageUtils.getMessage("messages", "user.notfound");
@@ -99,40 +309,190 @@ public class UserService {
     }
 
     /**
-     * Update existing user
+     * Retrieve selected fields of existing user.
+     * <p>
+     * Cached users are served as is, otherwise only selected fields are read (and not cached)
+     *
+     * @param userName {@link String} User name to retrieve
+     * @param fields   {@link Set} of user field names
+     * @return {@link CompletableFuture<User>} partial user
+     * @throws UserException if fields are not valid, or no matches found for {@link User#getName()}
+     */
+    @Secured({UserProfile.ADMIN, UserProfile.USER})
+    public CompletableFuture<User> retrieve(final String userName, final Set<String> fields) {
+        return CompletableFuture.supplyAsync(() -> {
+            LOGGER.info("Retrieve user: " + userName);
+
+            // Same fields as search selection
+            Set<ConstraintViolation<UserFilter>> violations = validator.validateValue(UserFilter.class, "select",
+                    fields);
+            if (!violations.isEmpty()) {
+                String message = violations.iterator().next().getMessage();
+                throw new UserException(message, CrudError.CONSTRAINT_ERROR);
+            }
+
+            Optional<User> findResult;
+            if (userReplica.isReady()) {
+                findResult = userReplica.get(userName);
+            } else {
+                findResult = userCache.getAllPresent(Collections.singleton(userName)).get(userName);
+                if (findResult == null) {
+                    findResult = userRepo.findProjectedByName(userName, fields);
+                }
+            }
+            if (!findResult.isPresent()) {
+                // Not found
+                String message = MessageUtils.getMessage("messages", "user.notfound");
+                throw new UserException(message, CrudError.RETRIEVE_ERROR);
+            }
+
+            return findResult.get();
+        }, executor).exceptionally(throwable -> {
+            LOGGER.error(throwable.getMessage());
+            throw translateException(throwable);
+        });
+    }
+
+    /**
+     * Retrieve existing users by name.
+     * <p>
+     * Cached users are served first, the others are fetched with batched {@code $in} queries (not cached)
+     *
+     * @param userNames {@link List<String>} User names to retrieve
+     * @return {@link CompletableFuture<List>} with one {@link UserLookupResult} per name, in the same order
+     * @throws UserException if there are too many names
+     */
+    @Secured({UserProfile.ADMIN, UserProfile.USER})
+    public CompletableFuture<List<UserLookupResult>> retrieveAll(final List<String> userNames) {
+        return CompletableFuture.supplyAsync(() -> {
+            LOGGER.info("Retrieve users: " + userNames.size());
+
+            if (userNames.size() > lookupMax) {
+                String message = MessageUtils.getMessage("messages", "user.lookup.size");
+                throw new UserException(message, CrudError.CONSTRAINT_ERROR);
+            }
+
+            Set<String> names = userNames.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+            Map<String, User> found = new HashMap<>();
+            if (userReplica.isReady()) {
+                names.forEach(name -> userReplica.get(name).ifPresent(user -> found.put(name, user)));
+            } else {
+                // Cached misses are not fetched again
+                Map<String, Optional<User>> cached = userCache.getAllPresent(names);
+                cached.forEach((name, user) -> user.ifPresent(value -> found.put(name, value)));
+
+                List<String> remaining = names.stream().filter(name -> !cached.containsKey(name))
+                        .collect(Collectors.toList());
+                for (int from = 0; from < remaining.size(); from += lookupBatch) {
+                    userRepo.findByNames(remaining.subList(from, Math.min(remaining.size(), from + lookupBatch)))
+                            .forEach(user -> found.put(user.getName(), user));
+                }
+            }
+
+            return userNames.stream()
+                    .map(name -> new UserLookupResult(name, withoutPassword(found.get(name))))
+                    .collect(Collectors.toList());
+        }, executor).exceptionally(throwable -> {
+            LOGGER.error(throwable.getMessage());
+            throw translateException(throwable);
+        });
+    }
+
+    /**
+     * Update existing user.
+     * <p>
+     * Password is encrypted first, then written with the other fields by a single conditional write on id, name and
+     * version (if informed)
      *
      * @param user {@link User} entity to update
-     * @return {@link CompletableFuture<User>}
-     * @throws UserException if {@link User#equals(Object)} not matches database value
+     * @return {@link CompletableFuture<User>} updated user, with its new version
+     * @throws UserException if {@link User#equals(Object)} not matches database value, or if its version is stale
      */
     @Secured(UserProfile.ADMIN)
     public CompletableFuture<User> update(final User user) {
         return CompletableFuture.supplyAsync(() -> {
             LOGGER.info("Update user: " + user.getName());
+            return user.getPassword();
+        }, executor).thenCompose(passwordHasher::encrypt).thenApplyAsync(encryptedPwd -> {
+            user.setPassword(encryptedPwd);
+            return userRepo.updateIfMatch(user);
+        }, executor).thenApply(updated -> {
+            if (!updated.isPresent()) {
+                throw updateMismatch(user);
+            }
+            // Notify change (drops cached data and issued tokens)
+            publisher.publishEvent(new UserEvent(user.getName(), UserEvent.Type.UPDATED));
+            return updated.get();
+        }).exceptionally(throwable -> {
+            LOGGER.error(throwable.getMessage());
+            throw translateException(throwable);
+        });
+    }
 
-            // Check sensitive data
-            Optional<User> findResult = userRepo.findByName(user.getName());
-            if (!findResult.isPresent()) {
-                // Not found
-                String message = MessageUtils.getMessage("messages", "user.notfound");
-                throw new UserException(message, CrudError.UPDATE_ERROR);
+    /**
+     * Patch existing user.
+     * <p>
+     * Only informed fields are validated and set, with a single conditional write (on version, if informed). Password
+     * is encrypted only if informed
+     *
+     * @param userName {@link String} {@link User#getName()} to patch
+     * @param changes  {@link Map} new values by field name, null values remove optional fields
+     * @return {@link CompletableFuture<User>} updated user, without password hash
+     * @throws UserException if a field cannot be patched or is not valid, or if version is stale
+     */
+    @Secured(UserProfile.ADMIN)
+    public CompletableFuture<User> patch(final String userName, final Map<String, Object> changes) {
+        final Map<String, Object> fields = new HashMap<>();
+
+        return CompletableFuture.supplyAsync(() -> {
+            LOGGER.info("Patch user: " + userName);
+
+            for (Map.Entry<String, Object> change : changes.entrySet()) {
+                if (FIELD_VERSION.equals(change.getKey())) {
+                    continue;
+                }
+                if (!PATCH_FIELDS.contains(change.getKey())
+                        || (change.getValue() != null && !(change.getValue() instanceof String))) {
+                    String message = MessageUtils.getMessage("messages", "user.patch.denied");
+                    throw new UserException(message, CrudError.UPDATE_ERROR);
+                }
+
+                Set<ConstraintViolation<User>> violations = validator.validateValue(User.class, change.getKey(),
+                        change.getValue());
+                if (!violations.isEmpty()) {
+                    String message = violations.iterator().next().getMessage();
+                    throw new UserException(message, CrudError.CONSTRAINT_ERROR);
+                }
+                fields.put(change.getKey(), change.getValue());
             }
 
-            User currentUser = findResult.get();
-            if (!currentUser.equals(user)) {
-                // Wrong id
-                String message = MessageUtils.getMessage("messages", "user.update.denied");
+            Object version = changes.get(FIELD_VERSION);
+            if (version != null && !(version instanceof Number)) {
+                String message = MessageUtils.getMessage("messages", "user.patch.denied");
                 throw new UserException(message, CrudError.UPDATE_ERROR);
             }
 
-            if (!user.getPassword().equals(currentUser.getPassword())) {
-                // Password changed, encrypt
-                user.setPassword(encryptor.encryptPassword(user.getPassword()));
+            return (String) fields.remove(FIELD_PASSWORD);
+        }, executor).thenCompose(password -> {
+            if (password == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // Password changed, encrypt
+            return passwordHasher.encrypt(password);
+        }).thenApplyAsync(encryptedPwd -> {
+            if (encryptedPwd != null) {
+                fields.put(FIELD_PASSWORD, encryptedPwd);
             }
 
-            // Save
-            userRepo.save(user);
-            return user;
+            Object version = changes.get(FIELD_VERSION);
+            Optional<User> patched = userRepo.patch(userName,
+                    version == null ? null : ((Number) version).longValue(), fields);
+            if (!patched.isPresent()) {
+                throw patchMismatch(userName);
+            }
+            // Notify change (drops cached data and issued tokens)
+            publisher.publishEvent(new UserEvent(userName, UserEvent.Type.UPDATED));
+            return patched.get();
         }, executor).exceptionally(throwable -> {
             LOGGER.error(throwable.getMessage());
             throw translateException(throwable);
@@ -153,9 +513,9 @@ public class UserService {
         return CompletableFuture.runAsync(() -> {
             LOGGER.info("Delete user: " + userName);
 
-            Optional<User> findResult = userRepo.findByName(userName);
-            if (findResult.isPresent()) {
-                userRepo.delete(findResult.get());
+            if (userRepo.deleteByName(userName) > 0) {
+                // Notify change (drops cached data and issued tokens)
+                publisher.publishEvent(new UserEvent(userName, UserEvent.Type.DELETED));
             }
         }, executor).exceptionally(throwable -> {
             LOGGER.error(throwable.getMessage());
@@ -171,22 +531,113 @@ public class UserService {
      */
     @Secured({UserProfile.ADMIN, UserProfile.USER})
     public CompletableFuture<UserPage> findUsers(final UserFilter filter) {
+        String fingerprint = FilterUtils.fingerprint(filter);
+
+        // Served from search cache, without using a thread
+        if (searchCache.isEnabled()) {
+            Optional<UserPage> cached = searchCache.get(fingerprint, FilterUtils.shape(filter));
+            if (cached.isPresent()) {
+                return CompletableFuture.completedFuture(cached.get());
+            }
+        }
+
+        return coalesce(fingerprint, filter);
+    }
+
+    /**
+     * Share a single search between identical concurrent ones
+     *
+     * @param fingerprint {@link String} filter fingerprint
+     * @param filter      {@link UserFilter} filter values
+     * @return {@link CompletableFuture<UserPage>} dedicated to the caller
+     */
+    private CompletableFuture<UserPage> coalesce(final String fingerprint, final UserFilter filter) {
+        if (!coalesce) {
+            return searchAndCache(fingerprint, filter);
+        }
+
+        CompletableFuture<UserPage> search = new CompletableFuture<>();
+        CompletableFuture<UserPage> shared = inFlight.putIfAbsent(fingerprint, search);
+        if (shared != null) {
+            deduplicated.increment();
+            return shared.thenApply(Function.identity());
+        }
+
+        try {
+            searchAndCache(fingerprint, filter).whenComplete((page, throwable) -> {
+                // Later searches must see later changes
+                inFlight.remove(fingerprint, search);
+                if (throwable != null) {
+                    search.completeExceptionally(throwable);
+                } else {
+                    search.complete(page);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected search, release waiting ones
+            inFlight.remove(fingerprint, search);
+            search.completeExceptionally(e);
+            throw e;
+        }
+        return search.thenApply(Function.identity());
+    }
+
+    /**
+     * Search users, caching the result when search cache is on
+     *
+     * @param fingerprint {@link String} filter fingerprint
+     * @param filter      {@link UserFilter} filter values
+     * @return {@link CompletableFuture<UserPage>}
+     */
+    private CompletableFuture<UserPage> searchAndCache(final String fingerprint, final UserFilter filter) {
+        if (!searchCache.isEnabled()) {
+            return searchUsers(filter);
+        }
+
+        // Generation as of search start, shared results are not cached by late joiners
+        long generation = searchCache.generation();
+        return searchUsers(filter).thenApply(page -> {
+            searchCache.put(fingerprint, generation, page);
+            return page;
+        });
+    }
+
+    /**
+     * Search users on datastore (or replica)
+     *
+     * @param filter {@link UserFilter} filter values
+     * @return {@link CompletableFuture<UserPage>}
+     */
+    private CompletableFuture<UserPage> searchUsers(final UserFilter filter) {
         return CompletableFuture.supplyAsync(() -> {
             LOGGER.info("Search users: ");
 
-            // Filter by example (basic approach)
-            Example<User> example = Example.of(filter.getFields(),
-                    matching().withStringMatcher(StringMatcher.REGEX)
-            );
+            // Keyset pagination, range query instead of skip
+            if (filter.getAfter() != null) {
+                return findUsersAfter(filter);
+            }
 
-            // Sort
-            Sort sort = FilterUtils.buildSort(filter);
+            // Served from memory when replica mode is on (legacy fields only)
+            if (userReplica.isReady() && CollectionUtils.isEmpty(filter.getWhere())) {
+                UserPage page = userReplica.find(filter);
+                if (page != null) {
+                    return page;
+                }
+            }
+
+            // Count free pages, or estimated totals
+            if (filter.getCount() != UserFilter.Count.EXACT) {
+                return findUsersSlice(filter);
+            }
+
+            // Compile filter (criteria, sort and selected fields)
+            Query query = FilterUtils.project(FilterUtils.buildQuery(filter), filter);
 
             // Paginate
-            PageRequest reqPage = PageRequest.of(filter.getPage(), filter.getSize(), sort);
+            PageRequest reqPage = PageRequest.of(filter.getPage(), filter.getSize());
 
             // Find
-            Page<User> page = userRepo.findAll(example, reqPage);
+            Page<User> page = userRepo.findPage(query, reqPage);
             return new UserPage(page.getTotalPages(), page.getNumber(), page.getContent());
         }, executor).exceptionally(throwable -> {
             LOGGER.error(throwable.getMessage());
@@ -195,6 +646,112 @@ public class UserService {
     }
 
 
+    /**
+     * Find users page without counting matches: one extra user tells if there is a next page
+     *
+     * @param filter {@link UserFilter} filter values
+     * @return {@link UserPage} page, with estimated totals or none
+     */
+    private UserPage findUsersSlice(final UserFilter filter) {
+        Query query = FilterUtils.buildQuery(filter);
+        Integer totalPages = null;
+        if (filter.getCount() == UserFilter.Count.ESTIMATED) {
+            long total = countCache.estimate(query);
+            totalPages = (int) ((total + filter.getSize() - 1) / filter.getSize());
+        }
+
+        FilterUtils.project(query, filter);
+        query.skip((long) filter.getPage() * filter.getSize()).limit(filter.getSize() + 1);
+        List<User> users = userRepo.findByQuery(query);
+        boolean hasNext = users.size() > filter.getSize();
+        if (hasNext) {
+            users = new ArrayList<>(users.subList(0, filter.getSize()));
+        }
+        return new UserPage(totalPages, filter.getPage(), users, hasNext,
+                filter.getCount() == UserFilter.Count.ESTIMATED);
+    }
+
+    /**
+     * Find users after filter continuation token
+     *
+     * @param filter {@link UserFilter} filter values
+     * @return {@link UserPage} keyset page
+     * @throws UserException if continuation token is not valid
+     */
+    private UserPage findUsersAfter(final UserFilter filter) {
+        Query query;
+        try {
+            // One extra user tells if there is a next page
+            query = FilterUtils.project(FilterUtils.buildKeysetQuery(filter, filter.getSize() + 1), filter);
+        } catch (IllegalArgumentException e) {
+            String message = MessageUtils.getMessage("messages", "filter.after.invalid");
+            throw new UserException(message, e, CrudError.CONSTRAINT_ERROR);
+        }
+
+        List<User> users = userRepo.findByQuery(query);
+        if (users.size() <= filter.getSize()) {
+            return new UserPage(users, null);
+        }
+
+        List<User> content = new ArrayList<>(users.subList(0, filter.getSize()));
+        return new UserPage(content, FilterUtils.buildNextToken(filter, content.get(content.size() - 1)));
+    }
+
+    /**
+     * Copy user without password hash (cached users are shared)
+     *
+     * @param user {@link User} user, may be null
+     * @return {@link User} copy
+     */
+    private static User withoutPassword(final User user) {
+        if (user == null || user.getPassword() == null) {
+            return user;
+        }
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy, "password");
+        return copy;
+    }
+
+    /**
+     * Explain why a conditional update matched nothing (failure path only)
+     *
+     * @param user {@link User} entity to update
+     * @return {@link UserException}
+     */
+    private UserException updateMismatch(final User user) {
+        Optional<User> findResult = userRepo.findProjectedByName(user.getName(), MISMATCH_FIELDS);
+        if (!findResult.isPresent()) {
+            // Not found
+            String message = MessageUtils.getMessage("messages", "user.notfound");
+            return new UserException(message, CrudError.UPDATE_ERROR);
+        }
+        if (!findResult.get().equals(user)) {
+            // Wrong id
+            String message = MessageUtils.getMessage("messages", "user.update.denied");
+            return new UserException(message, CrudError.UPDATE_ERROR);
+        }
+        // Changed meanwhile
+        String message = MessageUtils.getMessage("messages", "user.update.conflict");
+        return new UserException(message, CrudError.CONFLICT_ERROR);
+    }
+
+    /**
+     * Explain why a conditional patch matched nothing (failure path only)
+     *
+     * @param userName {@link String} {@link User#getName()} to patch
+     * @return {@link UserException}
+     */
+    private UserException patchMismatch(final String userName) {
+        if (!userRepo.findProjectedByName(userName, MISMATCH_FIELDS).isPresent()) {
+            // Not found
+            String message = MessageUtils.getMessage("messages", "user.notfound");
+            return new UserException(message, CrudError.UPDATE_ERROR);
+        }
+        // Changed meanwhile
+        String message = MessageUtils.getMessage("messages", "user.update.conflict");
+        return new UserException(message, CrudError.CONFLICT_ERROR);
+    }
+
     /**
      * Translate relevant exceptions into {@link UserException}
      *
@@ -214,6 +771,9 @@ public class UserService {
         if (throwable instanceof UserException) {
             // Nothing to do
             return (UserException) throwable;
+        } else if (throwable instanceof RejectedExecutionException) {
+            message = MessageUtils.getMessage("messages", "user.busy.error");
+            exception = new UserException(message, throwable, CrudError.UNAVAILABLE_ERROR);
         } else if (throwable instanceof DataIntegrityViolationException) {
             message = MessageUtils.getMessage("messages", "user.constraint.error");
             exception = new UserException(message, throwable, CrudError.CONSTRAINT_ERROR);
@@ -227,5 +787,4 @@ public class UserService {
 
         return exception;
     }
-
 }
@@ -56,10 +56,16 @@ public class ApiErrorBuilder {
             case DELETE_ERROR:
                 return  HttpStatus.NOT_FOUND;
 
+            case CONFLICT_ERROR:
+                return  HttpStatus.CONFLICT;
+
             case IO_ERROR:
             case ERROR:
                 return  HttpStatus.INTERNAL_SERVER_ERROR;
 
+            case UNAVAILABLE_ERROR:
+                return  HttpStatus.SERVICE_UNAVAILABLE;
+
             default: // dymmy
                 return  HttpStatus.NOT_FOUND;
         }
@@ -1,13 +1,83 @@
 package com.creativedrive.user.utils;
 
+import com.creativedrive.user.domain.FieldFilter;
+import com.creativedrive.user.domain.User;
 import com.creativedrive.user.domain.UserFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.bson.types.ObjectId;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Filter facilities
  */
 public class FilterUtils {
 
+    /** Unique tie breaker for keyset pagination */
+    public static final String ID_FIELD = "id";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Stable output: sorted properties and map keys, no nulls
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private static final String REGEX_META = "\\.[]{}()<>*+-=!?^$|";
+
+    private static final String IGNORE_CASE_FLAG = "(?i)";
+
+    private static final Set<String> UNIQUE_FIELDS = new HashSet<>(Arrays.asList(ID_FIELD, "name", "email"));
+
+    // Normalized shadow fields, for case insensitive lookups
+    private static final Map<String, String> SHADOWS = new HashMap<>();
+
+    static {
+        SHADOWS.put("name", "nameKey");
+        SHADOWS.put("email", "emailKey");
+    }
+
+    // Filterable fields, no reflection per request
+    private static final Map<String, Function<User, String>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put(ID_FIELD, User::getId);
+        FIELDS.put("profile", User::getProfile);
+        FIELDS.put("name", User::getName);
+        FIELDS.put("email", User::getEmail);
+        FIELDS.put("password", User::getPassword);
+        FIELDS.put("address", User::getAddress);
+        FIELDS.put("phone", User::getPhone);
+    }
+
     // Utility class private constructor
     private FilterUtils() {
 
@@ -48,4 +118,370 @@ public class FilterUtils {
         // Result
         return sort;
     }
+
+    /**
+     * Compile filter into criteria: typed filters plus legacy fields, mapped to the narrowest operator
+     * their regular expression allows
+     *
+     * @param filter {@link UserFilter}
+     * @return {@link List<Criteria>} to be combined with AND
+     */
+    public static List<Criteria> buildCriteria(final UserFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+        FIELDS.forEach((field, getter) -> {
+            String value = getter.apply(filter.getFields());
+            if (value != null) {
+                criteria.addAll(buildCriteria(field, ID_FIELD.equals(field) ? eq(value) : fromRegex(value)));
+            }
+        });
+        if (filter.getWhere() != null) {
+            filter.getWhere().forEach((field, fieldFilter) -> criteria.addAll(buildCriteria(field, fieldFilter)));
+        }
+        return criteria;
+    }
+
+    /**
+     * Compile field filter operators
+     */
+    private static List<Criteria> buildCriteria(String field, FieldFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter == null) {
+            return criteria;
+        }
+
+        // Case insensitive: normalized shadow field (indexed) or regular expression option
+        boolean ignoreCase = Boolean.TRUE.equals(filter.getIgnoreCase());
+        String shadow = ignoreCase ? SHADOWS.get(field) : null;
+        String target = shadow != null ? shadow : field;
+        Function<String, Object> value = shadow != null ? User::normalize : raw -> toValue(field, raw);
+        String options = ignoreCase && shadow == null ? "i" : "";
+
+        if (filter.getEq() != null) {
+            criteria.add(options.isEmpty() ? Criteria.where(target).is(value.apply(filter.getEq()))
+                    : Criteria.where(target).regex("^" + escapeRegex(filter.getEq()) + "$", options));
+        }
+        if (filter.getIn() != null) {
+            criteria.add(Criteria.where(target).in(filter.getIn().stream()
+                    .map(options.isEmpty() ? value
+                            : raw -> Pattern.compile("^" + escapeRegex(raw) + "$", Pattern.CASE_INSENSITIVE))
+                    .collect(Collectors.toList())));
+        }
+        if (filter.getPrefix() != null) {
+            // Anchored and escaped, bounded index scan
+            criteria.add(Criteria.where(target).regex("^" + escapeRegex((String) value.apply(filter.getPrefix())),
+                    options));
+        }
+        if (filter.getContains() != null) {
+            criteria.add(Criteria.where(target).regex(escapeRegex((String) value.apply(filter.getContains())),
+                    options));
+        }
+        if (filter.getGte() != null) {
+            criteria.add(Criteria.where(target).gte(value.apply(filter.getGte())));
+        }
+        if (filter.getLte() != null) {
+            criteria.add(Criteria.where(target).lte(value.apply(filter.getLte())));
+        }
+        if (filter.getExists() != null) {
+            criteria.add(Criteria.where(field).exists(filter.getExists()));
+        }
+        if (filter.getRegex() != null) {
+            criteria.add(Criteria.where(field).regex(filter.getRegex(), ignoreCase ? "i" : ""));
+        }
+        return criteria;
+    }
+
+    /**
+     * Map legacy regular expression onto equivalent operator: '^abc$' is equality, '^abc' prefix and
+     * plain 'abc' contains, case insensitive when starting with '(?i)'
+     *
+     * @param regex {@link String} regular expression
+     * @return {@link FieldFilter}
+     */
+    static FieldFilter fromRegex(String regex) {
+        FieldFilter filter = new FieldFilter();
+        if (regex.startsWith(IGNORE_CASE_FLAG)) {
+            filter.setIgnoreCase(Boolean.TRUE);
+            regex = regex.substring(IGNORE_CASE_FLAG.length());
+        }
+
+        boolean start = regex.startsWith("^");
+        boolean end = start && regex.length() > 1 && regex.endsWith("$");
+        String literal = regex.substring(start ? 1 : 0, end ? regex.length() - 1 : regex.length());
+
+        if (!isLiteral(literal)) {
+            filter.setRegex(regex);
+        } else if (end) {
+            filter.setEq(literal);
+        } else if (start) {
+            filter.setPrefix(literal);
+        } else {
+            filter.setContains(literal);
+        }
+        return filter;
+    }
+
+    private static FieldFilter eq(String value) {
+        FieldFilter filter = new FieldFilter();
+        filter.setEq(value);
+        return filter;
+    }
+
+    private static boolean isLiteral(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (REGEX_META.indexOf(value.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String escapeRegex(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (REGEX_META.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    // Ids are only converted on plain equality
+    private static Object toValue(String field, String value) {
+        if (ID_FIELD.equals(field) && value != null && ObjectId.isValid(value)) {
+            return new ObjectId(value);
+        }
+        return value;
+    }
+
+    /**
+     * Build keyset sort: filter sort plus unique tie breaker, on the same direction as the last sort
+     * so a single compound index serves it
+     *
+     * @param filter {@link UserFilter}
+     * @return {@link Sort}
+     */
+    public static Sort buildKeysetSort(final UserFilter filter) {
+        Sort sort = buildSort(filter);
+
+        Sort.Direction direction = Sort.Direction.ASC;
+        for (Sort.Order order : sort) {
+            // Unique keys need no tie breaker
+            if (UNIQUE_FIELDS.contains(order.getProperty())) {
+                return sort;
+            }
+            direction = order.getDirection();
+        }
+        return sort.and(Sort.by(direction, ID_FIELD));
+    }
+
+    /**
+     * Build keyset query, fetching users after filter continuation token
+     *
+     * @param filter {@link UserFilter} with continuation token (empty for first page)
+     * @param limit  maximal number of users
+     * @return {@link Query}
+     * @throws IllegalArgumentException if continuation token is not valid for filter sort
+     */
+    public static Query buildKeysetQuery(final UserFilter filter, final int limit) {
+        Sort sort = buildKeysetSort(filter);
+
+        List<Criteria> criteria = buildCriteria(filter);
+        if (!StringUtils.isEmpty(filter.getAfter())) {
+            criteria.add(buildAfterCriteria(sort, decodeToken(sort, filter.getAfter())));
+        }
+        return new Query(and(criteria)).with(sort).limit(limit);
+    }
+
+    /**
+     * Build query based on filter fields and sorts, without pagination
+     *
+     * @param filter {@link UserFilter}
+     * @return {@link Query}
+     */
+    public static Query buildQuery(final UserFilter filter) {
+        return new Query(and(buildCriteria(filter))).with(buildSort(filter));
+    }
+
+    /**
+     * Project query on filter selected fields, plus sort fields (continuation tokens need them). Without selection,
+     * all fields but password hash and shadow fields are read
+     *
+     * @param query  {@link Query} built from filter
+     * @param filter {@link UserFilter}
+     * @return {@link Query} same query, projected
+     */
+    public static Query project(final Query query, final UserFilter filter) {
+        if (CollectionUtils.isEmpty(filter.getSelect())) {
+            query.fields().exclude("password");
+            SHADOWS.values().forEach(shadow -> query.fields().exclude(shadow));
+            return query;
+        }
+
+        filter.getSelect().forEach(field -> query.fields().include(field));
+        buildKeysetSort(filter).forEach(order -> query.fields().include(order.getProperty()));
+        return query;
+    }
+
+    /**
+     * Build continuation token for users after the given one
+     *
+     * @param filter {@link UserFilter}
+     * @param last   {@link User} last user of current page
+     * @return {@link String} opaque token
+     */
+    public static String buildNextToken(final UserFilter filter, final User last) {
+        Sort sort = buildKeysetSort(filter);
+
+        List<String> token = new ArrayList<>();
+        token.add(signature(sort));
+        sort.forEach(order -> token.add(FIELDS.get(order.getProperty()).apply(last)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(token));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decode continuation token sort values
+     */
+    private static List<String> decodeToken(Sort sort, String token) {
+        List<String> values;
+        try {
+            byte[] data = Base64.getUrlDecoder().decode(token);
+            values = MAPPER.readValue(new String(data, StandardCharsets.UTF_8), new TypeReference<List<String>>() {
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+
+        // Token must come from same sort
+        List<Sort.Order> orders = new ArrayList<>();
+        sort.forEach(orders::add);
+        if (values.size() != orders.size() + 1 || !Objects.equals(values.get(0), signature(sort))) {
+            throw new IllegalArgumentException("Continuation token does not match sort");
+        }
+        return values.subList(1, values.size());
+    }
+
+    /**
+     * Range predicate for rows after sort values:
+     * (k1 after v1) or (k1 = v1 and k2 after v2) or ...
+     * <p>
+     * Nulls sort first, as on MongoDB
+     */
+    private static Criteria buildAfterCriteria(Sort sort, List<String> values) {
+        List<Criteria> alternatives = new ArrayList<>();
+        List<Criteria> equals = new ArrayList<>();
+
+        int i = 0;
+        for (Sort.Order order : sort) {
+            String field = order.getProperty();
+            Object value = toValue(field, values.get(i++));
+
+            Criteria after = null;
+            if (order.isAscending()) {
+                after = value == null ? Criteria.where(field).ne(null) : Criteria.where(field).gt(value);
+            } else if (ID_FIELD.equals(field)) {
+                after = Criteria.where(field).lt(value);
+            } else if (value != null) {
+                after = new Criteria().orOperator(Criteria.where(field).lt(value), Criteria.where(field).is(null));
+            }
+
+            // Nothing after null on descending order
+            if (after != null) {
+                List<Criteria> alternative = new ArrayList<>(equals);
+                alternative.add(after);
+                alternatives.add(alternative.size() == 1 ? after
+                        : new Criteria().andOperator(alternative.toArray(new Criteria[0])));
+            }
+            equals.add(Criteria.where(field).is(value));
+        }
+
+        return new Criteria().orOperator(alternatives.toArray(new Criteria[0]));
+    }
+
+    private static Criteria and(List<Criteria> criteria) {
+        return criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria.toArray(new Criteria[0]));
+    }
+
+    /**
+     * Canonical filter fingerprint: equivalent filters (field, set and map orders, asc/desc conflicts) share it
+     *
+     * @param filter {@link UserFilter}, sanitized on the way
+     * @return {@link String} fingerprint
+     */
+    public static String fingerprint(final UserFilter filter) {
+        filter.sanitize();
+
+        Map<String, Object> canonical = new TreeMap<>();
+        Map<String, String> fields = new TreeMap<>();
+        FIELDS.forEach((field, getter) -> {
+            String value = getter.apply(filter.getFields());
+            if (value != null) {
+                fields.put(field, value);
+            }
+        });
+        canonical.put("fields", fields);
+        canonical.put("where", filter.getWhere());
+        canonical.put("page", filter.getPage());
+        canonical.put("size", filter.getSize());
+        canonical.put("asc", new TreeSet<>(filter.getAsc()));
+        canonical.put("desc", new TreeSet<>(filter.getDesc()));
+        canonical.put("after", filter.getAfter());
+        canonical.put("count", filter.getCount());
+        // Selected fields shape cached pages, no selection means all fields
+        if (!CollectionUtils.isEmpty(filter.getSelect())) {
+            canonical.put("select", new TreeSet<>(filter.getSelect()));
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(CANONICAL_MAPPER.writeValueAsBytes(canonical));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Filter shape (fingerprint class): filtered fields and operators, sorts, selection and pagination mode, without
+     * values
+     *
+     * @param filter {@link UserFilter}, sanitized on the way
+     * @return {@link String} shape, such as 'fields=name;where=email.prefix;asc=name;desc=;select=;mode=EXACT'
+     */
+    public static String shape(final UserFilter filter) {
+        filter.sanitize();
+
+        Set<String> fields = new TreeSet<>();
+        FIELDS.forEach((field, getter) -> {
+            if (getter.apply(filter.getFields()) != null) {
+                fields.add(field);
+            }
+        });
+        Set<String> where = new TreeSet<>();
+        if (filter.getWhere() != null) {
+            filter.getWhere().forEach((field, fieldFilter) -> {
+                Map<String, Object> operators = CANONICAL_MAPPER.convertValue(fieldFilter,
+                        new TypeReference<Map<String, Object>>() {
+                        });
+                operators.keySet().forEach(operator -> where.add(field + "." + operator));
+            });
+        }
+
+        return "fields=" + String.join(",", fields)
+                + ";where=" + String.join(",", where)
+                + ";asc=" + String.join(",", new TreeSet<>(filter.getAsc()))
+                + ";desc=" + String.join(",", new TreeSet<>(filter.getDesc()))
+                + ";select=" + (filter.getSelect() == null ? "" : String.join(",", new TreeSet<>(filter.getSelect())))
+                + ";mode=" + (filter.getAfter() != null ? "KEYSET" : filter.getCount().name());
+    }
+
+    private static String signature(Sort sort) {
+        StringBuilder signature = new StringBuilder();
+        sort.forEach(order -> signature.append(order.isAscending() ? '+' : '-').append(order.getProperty()));
+        return signature.toString();
+    }
 }
@@ -0,0 +1,53 @@
+package com.creativedrive.user.utils;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.CollectionUtils;
+
+import java.util.Set;
+
+/**
+ * User view facilities (sparse fieldsets)
+ *
+ * @see com.creativedrive.user.config.JacksonConfig
+ */
+public class UserViewBuilder {
+
+    /**
+     * Jackson filter id of users
+     */
+    public static final String FILTER = "userView";
+
+    // Utility class private constructor
+    private UserViewBuilder() {
+
+    }
+
+    /**
+     * Build user view filters
+     *
+     * @param fields {@link Set} of user field names to send, may be null
+     * @return {@link FilterProvider} selected fields only, or all fields but password if none selected
+     */
+    public static FilterProvider filters(Set<String> fields) {
+        SimpleBeanPropertyFilter filter = CollectionUtils.isEmpty(fields)
+                ? SimpleBeanPropertyFilter.serializeAllExcept("password")
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        return new SimpleFilterProvider().addFilter(FILTER, filter);
+    }
+
+    /**
+     * Wrap response body, so its users are sent with selected fields only
+     *
+     * @param body   {@link Object} response body
+     * @param fields {@link Set} of user field names to send, may be null
+     * @return {@link MappingJacksonValue}
+     */
+    public static MappingJacksonValue build(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filters(fields));
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+package com.creativedrive.user.component;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for {@link CacheWarmer}
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+public class CacheWarmerTest {
+
+    /**
+     * Test scenario for snapshot file round trip
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itReadsSnapshots() throws Exception {
+        Path path = Files.createTempFile("snapshot", ".bin");
+        try {
+            Map<String, Long> frequencies = new LinkedHashMap<>();
+            frequencies.put("cold", 1L);
+            frequencies.put("hot", 10L);
+            frequencies.put("warm", 5L);
+
+            // Test (hottest first)
+            CacheWarmer.write(path, frequencies);
+            Map<String, Long> result = CacheWarmer.read(path);
+            assertThat(new ArrayList<>(result.keySet()), equalTo(Arrays.asList("hot", "warm", "cold")));
+            assertThat(result.get("hot"), equalTo(10L));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test scenario for appended records and truncated tail
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itToleratesTruncatedSnapshots() throws Exception {
+        Path path = Files.createTempFile("snapshot", ".bin");
+        try {
+            Map<String, Long> frequencies = new LinkedHashMap<>();
+            frequencies.put("user", 3L);
+            CacheWarmer.write(path, frequencies);
+
+            // Appended record (adds up) plus a partial one
+            byte[] record = Files.readAllBytes(path);
+            byte[] body = Arrays.copyOfRange(record, 4, record.length);
+            Files.write(path, body, StandardOpenOption.APPEND);
+            Files.write(path, Arrays.copyOf(body, body.length - 3), StandardOpenOption.APPEND);
+
+            // Test
+            Map<String, Long> result = CacheWarmer.read(path);
+            assertThat(result.size(), equalTo(1));
+            assertThat(result.get("user"), equalTo(6L));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.BulkInsertException;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.persistence.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link CreateBatcher}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "app.config.create.batch.enabled=true",
+        "app.config.create.batch.size=4",
+        "app.config.create.batch.linger=500"
+})
+public class CreateBatcherTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private CreateBatcher createBatcher;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Before
+    public void beforeEach() {
+        // Clear database
+        repository.deleteAll();
+    }
+
+    /**
+     * Test scenario for concurrent creates inserted together, each one with its own result
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itInsertsCreatesTogether() throws Exception {
+        DistributionSummary sizes = registry.find("users.create.batch.size").summary();
+        long batches = sizes.count();
+
+        // Full batch, last user repeats the first one
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setName("user_" + i % 3);
+            user.setEmail("user" + i + "@email.com");
+            user.setPassword("pass123");
+            futures.add(createBatcher.insert(user));
+        }
+
+        // Test
+        for (int i = 0; i < 3; i++) {
+            assertThat(futures.get(i).get().getId(), notNullValue());
+        }
+        try {
+            futures.get(3).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(DuplicateKeyException.class));
+        }
+        assertThat(repository.count(), equalTo(3L));
+
+        // Check single batch
+        assertThat(sizes.count(), equalTo(batches + 1));
+    }
+
+    /**
+     * Test scenario for a create failing on its batch, the other creates completing normally
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFailsOnlyRejectedCreates() throws Exception {
+        UserRepository mockRepo = mock(UserRepository.class);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("Document failed validation");
+
+        // Mock behaviours (second user fails, third one is a duplicate)
+        when(mockRepo.insertUnordered(anyList())).thenThrow(new BulkInsertException("Unable to insert 1 users",
+                Collections.singleton(2), Collections.singletonMap(1, failure)));
+
+        // Test
+        ReflectionTestUtils.setField(createBatcher, "userRepo", mockRepo);
+        List<CompletableFuture<User>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                User user = new User();
+                user.setName("user_" + i);
+                futures.add(createBatcher.insert(user));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).get();
+        } finally {
+            ReflectionTestUtils.setField(createBatcher, "userRepo", repository);
+        }
+
+        assertThat(futures.get(0).get().getName(), equalTo("user_0"));
+        assertThat(futures.get(3).get().getName(), equalTo("user_3"));
+        try {
+            futures.get(1).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), sameInstance(failure));
+        }
+        try {
+            futures.get(2).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(DuplicateKeyException.class));
+        }
+
+        // Check mock iteration
+        verify(mockRepo, times(1)).insertUnordered(anyList());
+    }
+}
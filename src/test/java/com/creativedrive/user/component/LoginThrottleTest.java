@@ -0,0 +1,55 @@
+package com.creativedrive.user.component;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Tests for {@link LoginThrottle}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"app.config.throttle.max.name=3", "app.config.throttle.max.address=5"})
+public class LoginThrottleTest {
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    /**
+     * Test scenario for principal over limit
+     */
+    @Test
+    public void itBlocksByName() {
+        // Test
+        loginThrottle.recordFailure("name_user", null);
+        assertThat(loginThrottle.isBlocked("name_user", null), is(false));
+        for (int i = 0; i < 3; i++) {
+            loginThrottle.recordFailure("name_user", null);
+        }
+        assertThat(loginThrottle.isBlocked("name_user", null), is(true));
+        assertThat(loginThrottle.isBlocked("name_other", null), is(false));
+        assertThat(loginThrottle.trackedKeys(), greaterThan(0L));
+
+        // Reset on success
+        loginThrottle.reset("name_user");
+        assertThat(loginThrottle.isBlocked("name_user", null), is(false));
+    }
+
+    /**
+     * Test scenario for address over limit
+     */
+    @Test
+    public void itBlocksByAddress() {
+        // Test (distinct names, same address)
+        for (int i = 0; i < 6; i++) {
+            loginThrottle.recordFailure("address_user" + i, "10.0.0.1");
+        }
+        assertThat(loginThrottle.isBlocked("address_user", "10.0.0.1"), is(true));
+        assertThat(loginThrottle.isBlocked("address_user", "10.0.0.2"), is(false));
+    }
+}
@@ -0,0 +1,158 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Tests for {@link OffHeapUserStore}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"app.config.user.offheap.enabled=true", "app.config.user.offheap.max=131072",
+        "app.config.user.offheap.slab=4096", "app.config.user.cache.ttl=1"})
+public class OffHeapUserStoreTest {
+
+    @Autowired
+    private OffHeapUserStore offHeapStore;
+
+    @Before
+    public void beforeEach() {
+        offHeapStore.clear();
+    }
+
+    /**
+     * Test scenario for stored user
+     */
+    @Test
+    public void itStoresUsers() {
+        User user = new User();
+        user.setId("1");
+        user.setName("açaí");
+        user.setEmail("acai@test.com");
+        user.setProfile("ADMIN");
+        user.setPassword("secret");
+
+        // Test
+        offHeapStore.put(user, offHeapStore.stamp());
+        Optional<User> result = offHeapStore.get("açaí");
+
+        assertThat(result.isPresent(), equalTo(true));
+        assertThat(result.get().getId(), equalTo("1"));
+        assertThat(result.get().getName(), equalTo("açaí"));
+        assertThat(result.get().getEmail(), equalTo("acai@test.com"));
+        assertThat(result.get().getProfile(), equalTo("ADMIN"));
+        assertThat(result.get().getPassword(), equalTo("secret"));
+        assertThat(result.get().getPhone(), nullValue());
+
+        // Removed
+        offHeapStore.remove("açaí");
+        assertThat(offHeapStore.get("açaí").isPresent(), equalTo(false));
+        assertThat(offHeapStore.usedBytes(), equalTo(0L));
+    }
+
+    /**
+     * Test scenario for lookup racing with a removal
+     */
+    @Test
+    public void itSkipsStaleUsers() {
+        User user = new User();
+        user.setName("test");
+
+        // Test (removal after stamp taken)
+        long since = offHeapStore.stamp();
+        offHeapStore.remove("test");
+        offHeapStore.put(user, since);
+
+        assertThat(offHeapStore.get("test").isPresent(), equalTo(false));
+    }
+
+    /**
+     * Test scenario for memory ceiling
+     */
+    @Test
+    public void itEvictsBeyondCeiling() {
+        // Test (about 100 bytes each, far beyond 128 KB)
+        for (int i = 0; i < 2000; i++) {
+            User user = new User();
+            user.setId(String.valueOf(i));
+            user.setName("user_" + i);
+            user.setEmail("user_" + i + "@some.long.domain.test.com");
+            user.setAddress("Some long street name, " + i);
+            offHeapStore.put(user, offHeapStore.stamp());
+        }
+
+        assertThat(offHeapStore.reservedBytes(), lessThanOrEqualTo(131072L));
+        assertThat(offHeapStore.usedBytes(), greaterThan(0L));
+        assertThat(offHeapStore.fragmentation(), lessThanOrEqualTo(0.5));
+
+        // Most recent users kept
+        assertThat(offHeapStore.get("user_1999").get().getId(), equalTo("1999"));
+        assertThat(offHeapStore.get("user_0").isPresent(), equalTo(false));
+    }
+
+    /**
+     * Test scenario for a full segment without chunks of the record size class
+     */
+    @Test
+    public void itReassignsSlabsBetweenClasses() {
+        // Small users on a single segment (two 4 KB slabs), until it is full
+        List<String> names = new ArrayList<>();
+        for (int i = 0; names.size() < 129; i++) {
+            String name = "u" + i;
+            int hash = name.hashCode();
+            if (((hash ^ (hash >>> 16)) & 15) == 0) {
+                names.add(name);
+            }
+        }
+        String bigName = names.remove(names.size() - 1);
+        for (String name : names) {
+            User user = new User();
+            user.setName(name);
+            offHeapStore.put(user, offHeapStore.stamp());
+        }
+
+        // Test (large user on the same segment)
+        User big = new User();
+        big.setName(bigName);
+        big.setAddress(String.join("", Collections.nCopies(1500, "x")));
+        offHeapStore.put(big, offHeapStore.stamp());
+
+        // Only the least recently used slab is emptied for it
+        assertThat(offHeapStore.get(bigName).isPresent(), equalTo(true));
+        assertThat(offHeapStore.get(names.get(0)).isPresent(), equalTo(false));
+        names.subList(64, 128).forEach(name -> assertThat(offHeapStore.get(name).isPresent(), equalTo(true)));
+    }
+
+    /**
+     * Test scenario for users stored longer than cache TTL
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itExpiresUsers() throws Exception {
+        User user = new User();
+        user.setName("test");
+
+        // Test
+        offHeapStore.put(user, offHeapStore.stamp());
+        assertThat(offHeapStore.get("test").isPresent(), equalTo(true));
+        Thread.sleep(1100);
+        assertThat(offHeapStore.get("test").isPresent(), equalTo(false));
+        assertThat(offHeapStore.usedBytes(), equalTo(0L));
+    }
+}
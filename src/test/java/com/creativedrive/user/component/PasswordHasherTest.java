@@ -0,0 +1,83 @@
+package com.creativedrive.user.component;
+
+import org.jasypt.util.password.PasswordEncryptor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link PasswordHasher}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"app.config.hash.threads=1", "app.config.hash.queue=0"})
+public class PasswordHasherTest {
+
+    @MockBean
+    private PasswordEncryptor mockEncryptor;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    /**
+     * Test scenario for saturated hashing pool
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFailsFastWhenSaturated() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // Mock behaviours (blocks the single hashing thread)
+        when(mockEncryptor.encryptPassword("slow")).thenAnswer(invocation -> {
+            latch.await();
+            return "encrypted_slow";
+        });
+
+        // Test
+        CompletableFuture<String> busy = passwordHasher.encrypt("slow");
+        CompletableFuture<String> rejected = passwordHasher.encrypt("other");
+        try {
+            rejected.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        }
+
+        // Release
+        latch.countDown();
+        assertThat(busy.get(), equalTo("encrypted_slow"));
+    }
+
+    /**
+     * Test scenario for bulk hashing, one password per task
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itEncryptsAllInOrder() throws Exception {
+        // Mock behaviours
+        when(mockEncryptor.encryptPassword(anyString()))
+                .thenAnswer(invocation -> "encrypted_" + invocation.getArgument(0));
+
+        // Test
+        List<String> encrypted = passwordHasher.encryptAll(Arrays.asList("a", "b", "c")).get();
+        assertThat(encrypted, equalTo(Arrays.asList("encrypted_a", "encrypted_b", "encrypted_c")));
+    }
+}
@@ -0,0 +1,108 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.domain.UserPage;
+import com.creativedrive.user.utils.FilterUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for {@link SearchCache}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SearchCacheTest {
+
+    @Autowired
+    private SearchCache searchCache;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private UserPage page;
+
+    @Before
+    public void beforeEach() {
+        searchCache.clear();
+        page = new UserPage(1, 0, Collections.singletonList(new User()));
+    }
+
+    /**
+     * Test scenario for cached pages invalidated by generation
+     */
+    @Test
+    public void itCachesPages() {
+        // Test (hit)
+        searchCache.put("key", searchCache.generation(), page);
+        assertThat(searchCache.get("key", "shape").get(), equalTo(page));
+
+        // Test (any change invalidates)
+        publisher.publishEvent(new UserEvent("user", UserEvent.Type.UPDATED));
+        assertThat(searchCache.get("key", "shape").isPresent(), equalTo(false));
+
+        // Test (searched before a change, never cached)
+        long generation = searchCache.generation();
+        publisher.publishEvent(new UserEvent("user", UserEvent.Type.CREATED));
+        searchCache.put("key", generation, page);
+        assertThat(searchCache.get("key", "shape").isPresent(), equalTo(false));
+
+        assertThat(registry.find("users.search.cache.ratio").tag("class", "shape").gauge().value(),
+                equalTo(1.0 / 3));
+    }
+
+    /**
+     * Test scenario for canonical filter fingerprints
+     */
+    @Test
+    public void itFingerprintsFilters() {
+        UserFilter filter = new UserFilter();
+        filter.getFields().setName("^user");
+        filter.setAsc(new HashSet<>(Arrays.asList("name", "email")));
+        filter.setDesc(new HashSet<>());
+
+        // Same filter, other set order and explicit defaults
+        UserFilter same = new UserFilter();
+        same.getFields().setName("^user");
+        same.setAsc(new HashSet<>(Arrays.asList("email", "name")));
+        same.setDesc(new HashSet<>());
+        same.setPage(0);
+        same.setSize(10);
+
+        UserFilter other = new UserFilter();
+        other.getFields().setName("^user");
+        other.setPage(1);
+
+        // Same filter, selecting fields
+        UserFilter selected = new UserFilter();
+        selected.getFields().setName("^user");
+        selected.setAsc(new HashSet<>(Arrays.asList("name", "email")));
+        selected.setSelect(new HashSet<>(Arrays.asList("name", "email")));
+
+        // Test
+        assertThat(FilterUtils.fingerprint(filter), equalTo(FilterUtils.fingerprint(same)));
+        assertThat(FilterUtils.fingerprint(filter), not(equalTo(FilterUtils.fingerprint(other))));
+        assertThat(FilterUtils.fingerprint(filter), not(equalTo(FilterUtils.fingerprint(selected))));
+        assertThat(FilterUtils.shape(filter), equalTo("fields=name;where=;asc=email,name;desc=;select=;mode=EXACT"));
+        assertThat(FilterUtils.shape(selected),
+                equalTo("fields=name;where=;asc=email,name;desc=;select=email,name;mode=EXACT"));
+    }
+}
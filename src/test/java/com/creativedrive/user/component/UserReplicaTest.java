@@ -0,0 +1,115 @@
+package com.creativedrive.user.component;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserEvent;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.domain.UserPage;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.persistence.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for {@link UserReplica}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"app.config.replica.enabled=true"})
+public class UserReplicaTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private UserReplica userReplica;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Before
+    public void beforeEach() throws Exception {
+        // Clear database
+        repository.deleteAll();
+
+        // Fixtures
+        for (int i = 0; i < 20; i++) {
+            User user = new User();
+            user.setName("user_" + (char) ('a' + i));
+            user.setEmail("user" + (19 - i) + "@email.com");
+            user.setPassword("pass123");
+            user.setProfile(i % 3 == 0 ? UserProfile.ADMIN : UserProfile.USER);
+            repository.save(user);
+        }
+
+        // Wait for startup load, then load fixtures
+        while (!userReplica.isReady()) {
+            Thread.sleep(10);
+        }
+        userReplica.reload();
+    }
+
+    /**
+     * Test scenario for search served from replica
+     */
+    @Test
+    public void itFindsUsers() {
+        // Test (prefix and profile, sorted desc by name)
+        UserFilter filter = new UserFilter();
+        filter.getFields().setName("^user_[a-h]");
+        filter.getFields().setProfile("ADMIN");
+        filter.setDesc(Collections.singleton("name"));
+        UserPage page = userReplica.find(filter);
+
+        assertThat(names(page.getContent()), equalTo("user_g,user_d,user_a"));
+        assertThat(page.getTotalPages(), equalTo(1));
+
+        // Test (pagination, sorted by email)
+        filter = new UserFilter();
+        filter.setSize(5);
+        filter.setPage(1);
+        filter.setAsc(Collections.singleton("email"));
+        page = userReplica.find(filter);
+
+        assertThat(names(page.getContent()), equalTo("user_f,user_e,user_d,user_c,user_b"));
+        assertThat(page.getTotalPages(), equalTo(4));
+    }
+
+    /**
+     * Test scenario for changes applied on top of replica snapshot
+     */
+    @Test
+    public void itAppliesChanges() {
+        User user = repository.findByName("user_b").get();
+        user.setProfile(UserProfile.ADMIN);
+        repository.save(user);
+        repository.delete(repository.findByName("user_a").get());
+
+        // Test
+        publisher.publishEvent(new UserEvent("user_b", UserEvent.Type.UPDATED));
+        publisher.publishEvent(new UserEvent("user_a", UserEvent.Type.DELETED));
+
+        assertThat(userReplica.get("user_a").isPresent(), equalTo(false));
+        assertThat(userReplica.get("user_b").get().getProfile(), equalTo(UserProfile.ADMIN));
+
+        UserFilter filter = new UserFilter();
+        filter.getFields().setProfile("ADMIN");
+        filter.setAsc(Collections.singleton("name"));
+        UserPage page = userReplica.find(filter);
+        assertThat(names(page.getContent()), equalTo("user_b,user_d,user_g,user_j,user_m,user_p,user_s"));
+    }
+
+    private static String names(List<User> users) {
+        return users.stream().map(User::getName).collect(Collectors.joining(","));
+    }
+}
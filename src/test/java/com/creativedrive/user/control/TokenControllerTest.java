@@ -0,0 +1,176 @@
+package com.creativedrive.user.control;
+
+import com.creativedrive.user.domain.AccessToken;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.service.LoginService;
+import com.creativedrive.user.service.TokenService;
+import com.creativedrive.user.service.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for {@link TokenController}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TokenControllerTest {
+
+    @MockBean
+    private UserService mockService;
+
+    @MockBean
+    private LoginService mockLoginService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User user;
+
+    @Before
+    public void beforeEach() {
+        // Fixtures
+        user = new User();
+        user.setName("user_name");
+        user.setProfile(UserProfile.USER);
+
+        // Reset mocks
+        reset(mockService);
+    }
+
+    /**
+     * Test scenario for POST token
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itHandlesPostToken() throws Exception {
+        // Request
+        MockHttpServletRequestBuilder reqBuilder = post("/api/token");
+
+        // Call && Check
+        mockMvc.perform(reqBuilder)
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value(notNullValue()))
+                .andExpect(jsonPath("$.type").value(AccessToken.TYPE));
+    }
+
+    /**
+     * Test scenario for POST token through Basic auth filter (credentials erased once authenticated)
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itHandlesPostTokenWithBasicAuth() throws Exception {
+        // Mock behaviours
+        when(mockLoginService.checkAuth(user.getName(), "pwd123")).thenReturn(Optional.of(user));
+
+        // Request
+        MockHttpServletRequestBuilder reqBuilder = post("/api/token")
+                .with(httpBasic(user.getName(), "pwd123"));
+
+        // Call && Check
+        mockMvc.perform(reqBuilder)
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value(notNullValue()))
+                .andExpect(jsonPath("$.type").value(AccessToken.TYPE));
+
+        // Check mock iteration
+        verify(mockLoginService).checkAuth(user.getName(), "pwd123");
+    }
+
+    /**
+     * Test scenario for request with valid bearer token
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itAcceptsBearerTokens() throws Exception {
+        // Mock behaviours
+        when(mockService.retrieve(user.getName())).thenReturn(CompletableFuture.completedFuture(user));
+
+        // Request
+        AccessToken token = tokenService.issue(user.getName(), user.getProfile());
+        MockHttpServletRequestBuilder reqBuilder = get("/api/user/{name}", user.getName())
+                .header(HttpHeaders.AUTHORIZATION, AccessToken.TYPE + " " + token.getToken());
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk());
+
+        // Check mock iteration
+        verify(mockService).retrieve(user.getName());
+    }
+
+    /**
+     * Test scenario for request with invalid bearer token
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itRejectsInvalidBearerTokens() throws Exception {
+        // Request
+        MockHttpServletRequestBuilder reqBuilder = get("/api/user/{name}", user.getName())
+                .header(HttpHeaders.AUTHORIZATION, AccessToken.TYPE + " invalid.token");
+
+        // Call && Check
+        mockMvc.perform(reqBuilder)
+                .andDo(print())
+                .andExpect(status().isUnauthorized());
+
+        // Check mock iteration
+        verify(mockService, never()).retrieve(anyString());
+    }
+
+    /**
+     * Test scenario for token exchanged by other token
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itDeniesTokenExchange() throws Exception {
+        // Request
+        AccessToken token = tokenService.issue(user.getName(), user.getProfile());
+        MockHttpServletRequestBuilder reqBuilder = post("/api/token")
+                .header(HttpHeaders.AUTHORIZATION, AccessToken.TYPE + " " + token.getToken());
+
+        // Call && Check
+        mockMvc.perform(reqBuilder)
+                .andDo(print())
+                .andExpect(status().isForbidden());
+    }
+}
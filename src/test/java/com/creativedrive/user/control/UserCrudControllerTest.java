@@ -2,7 +2,9 @@ package com.creativedrive.user.control;
 
 import com.creativedrive.user.domain.CrudError;
 import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserBulkResult;
 import com.creativedrive.user.domain.UserException;
+import com.creativedrive.user.domain.UserLookupResult;
 import com.creativedrive.user.domain.UserProfile;
 import com.creativedrive.user.service.UserService;
 import com.creativedrive.user.utils.MessageUtils;
@@ -21,6 +23,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.containsString;
@@ -184,6 +192,43 @@ public class UserCrudControllerTest {
         verify(mockService).create(user);
     }
 
+    /**
+     * Test scenario for POST users in bulk
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itHandlesPostUsersBulk() throws Exception {
+        List<User> users = Collections.singletonList(user);
+        List<UserBulkResult> results = Collections.singletonList(
+                new UserBulkResult(0, user.getName(), UserBulkResult.Status.DUPLICATE));
+
+        // Mock behaviours
+        when(mockService.createAll(users)).thenReturn(CompletableFuture.completedFuture(results));
+
+        // Request
+        String payload = mapper.writeValueAsString(users);
+        MockHttpServletRequestBuilder reqBuilder = post("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value(user.getName()))
+                .andExpect(jsonPath("$[0].status").value("DUPLICATE"));
+
+        // Check mock iteration
+        verify(mockService).createAll(users);
+    }
+
     /**
      * Test scenario for GET user
      *
@@ -208,12 +253,47 @@ public class UserCrudControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(user.getId()))
-                .andExpect(jsonPath("$.name").value(user.getName()));
+                .andExpect(jsonPath("$.name").value(user.getName()))
+                .andExpect(jsonPath("$.password").doesNotExist());
 
         // Check mock iteration
         verify(mockService).retrieve(user.getName());
     }
 
+    /**
+     * Test scenario for GET user selected fields
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itHandlesGetUserFields() throws Exception {
+        Set<String> fields = new HashSet<>(Arrays.asList("name", "profile"));
+
+        // Mock behaviours
+        when(mockService.retrieve(user.getName(), fields)).thenReturn(CompletableFuture.completedFuture(user));
+
+        // Request
+        MockHttpServletRequestBuilder reqBuilder = get("/api/user/{name}", user.getName())
+                .param("fields", "name,profile");
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(user.getName()))
+                .andExpect(jsonPath("$.profile").value(user.getProfile()))
+                .andExpect(jsonPath("$.email").doesNotExist());
+
+        // Check mock iteration
+        verify(mockService).retrieve(user.getName(), fields);
+    }
+
     /**
      * Test scenario for GET user error
      *
@@ -246,6 +326,45 @@ public class UserCrudControllerTest {
         verify(mockService).retrieve(user.getName());
     }
 
+    /**
+     * Test scenario for POST users by names
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itHandlesPostUsersByNames() throws Exception {
+        List<String> names = Arrays.asList(user.getName(), "ghost");
+        List<UserLookupResult> results = Arrays.asList(
+                new UserLookupResult(user.getName(), user), new UserLookupResult("ghost", null));
+
+        // Mock behaviours
+        when(mockService.retrieveAll(names)).thenReturn(CompletableFuture.completedFuture(results));
+
+        // Request
+        String payload = mapper.writeValueAsString(names);
+        MockHttpServletRequestBuilder reqBuilder = post("/api/users/by-names")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].user.name").value(user.getName()))
+                .andExpect(jsonPath("$[1].name").value("ghost"))
+                .andExpect(jsonPath("$[1].found").value(false));
+
+        // Check mock iteration
+        verify(mockService).retrieveAll(names);
+    }
+
     /**
      * Test scenario for PUT user
      *
@@ -314,6 +433,77 @@ public class UserCrudControllerTest {
         verify(mockService).update(user);
     }
 
+    /**
+     * Test scenario for PATCH user
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itHandlesPatchUser() throws Exception {
+        Map<String, Object> changes = Collections.singletonMap("phone", "77776666");
+
+        // Mock behaviours
+        when(mockService.patch(user.getName(), changes)).thenReturn(CompletableFuture.completedFuture(user));
+
+        // Request
+        String payload = mapper.writeValueAsString(changes);
+        MockHttpServletRequestBuilder reqBuilder = patch("/api/user/{name}", user.getName())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(user.getName()));
+
+        // Check mock iteration
+        verify(mockService).patch(user.getName(), changes);
+    }
+
+    /**
+     * Test scenario for PATCH user on a stale version
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itHandlesPatchUserConflict() throws Exception {
+        Map<String, Object> changes = Collections.singletonMap("version", 1);
+
+        // Mock behaviours
+        final CompletableFuture<User> future = CompletableFuture.supplyAsync(() -> {
+            throw new UserException("patch conflict", CrudError.CONFLICT_ERROR);
+        });
+        when(mockService.patch(user.getName(), changes)).thenReturn(future);
+
+        // Request
+        String payload = mapper.writeValueAsString(changes);
+        MockHttpServletRequestBuilder reqBuilder = patch("/api/user/{name}", user.getName())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(content().string(containsString("patch conflict")));
+
+        // Check mock iteration
+        verify(mockService).patch(user.getName(), changes);
+    }
+
     /**
      * Test scenario for DELETE user
      *
@@ -1,5 +1,6 @@
 package com.creativedrive.user.control;
 
+import com.creativedrive.user.domain.FieldFilter;
 import com.creativedrive.user.domain.User;
 import com.creativedrive.user.domain.UserFilter;
 import com.creativedrive.user.domain.UserPage;
@@ -23,6 +24,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.containsString;
@@ -86,11 +88,13 @@ public class UserSearchControllerTest {
         // Invalid payload
         filter.setAsc(Sets.newHashSet("invalid"));
         filter.setDesc(Sets.newHashSet("invalid"));
+        filter.setWhere(Collections.singletonMap("password", new FieldFilter()));
         String payload = mapper.writeValueAsString(filter);
 
         // Expected messages (attached by CustomHandler)
         String msgPassword = MessageUtils.getMessage("messages", "filter.fields.asc.invalid");
         String msgProfile = MessageUtils.getMessage("messages", "filter.fields.desc.invalid");
+        String msgWhere = MessageUtils.getMessage("messages", "filter.where.invalid");
 
         // Request
         MockHttpServletRequestBuilder reqBuilder = post("/api/users")
@@ -102,7 +106,69 @@ public class UserSearchControllerTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string(containsString(msgPassword)))
-                .andExpect(content().string(containsString(msgProfile)));
+                .andExpect(content().string(containsString(msgProfile)))
+                .andExpect(content().string(containsString(msgWhere)));
+    }
+
+    /**
+     * Test scenario where Request Body selects password hashes
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itRejectsPasswordSelect() throws Exception {
+        // Invalid payload
+        filter.setSelect(Sets.newHashSet("name", "password"));
+        String payload = mapper.writeValueAsString(filter);
+
+        // Expected messages (attached by CustomHandler)
+        String msgSelect = MessageUtils.getMessage("messages", "filter.select.invalid");
+
+        // Request
+        MockHttpServletRequestBuilder reqBuilder = post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call & Check
+        mockMvc.perform(reqBuilder)
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString(msgSelect)));
+
+        // Check mock iteration
+        verify(mockService, never()).findUsers(any(UserFilter.class));
+    }
+
+    /**
+     * Test scenario where Request Body sorts or filters by version
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itRejectsVersionSortsAndFilters() throws Exception {
+        // Invalid payload
+        filter.setAsc(Sets.newHashSet("version"));
+        filter.setWhere(Collections.singletonMap("version", new FieldFilter()));
+        String payload = mapper.writeValueAsString(filter);
+
+        // Expected messages (attached by CustomHandler)
+        String msgAsc = MessageUtils.getMessage("messages", "filter.fields.asc.invalid");
+        String msgWhere = MessageUtils.getMessage("messages", "filter.where.invalid");
+
+        // Request
+        MockHttpServletRequestBuilder reqBuilder = post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call & Check
+        mockMvc.perform(reqBuilder)
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString(msgAsc)))
+                .andExpect(content().string(containsString(msgWhere)));
+
+        // Check mock iteration
+        verify(mockService, never()).findUsers(any(UserFilter.class));
     }
 
 
@@ -142,4 +208,40 @@ public class UserSearchControllerTest {
         // Check mock iteration
         verify(mockService).findUsers(any(UserFilter.class));
     }
+
+    /**
+     * Test scenario for POST user filter with selected fields
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itHandlesPostUserFilterSelect() throws Exception {
+        // Mock behaviours
+        UserPage page = new UserPage(1, 0, Lists.newArrayList(user));
+        when(mockService.findUsers(any(UserFilter.class))).thenReturn(CompletableFuture.completedFuture(page));
+
+        // Request
+        filter.setFields(new User());
+        filter.setSelect(Sets.newHashSet("name", "profile"));
+        String payload = mapper.writeValueAsString(filter);
+        MockHttpServletRequestBuilder reqBuilder = post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(payload);
+
+        // Call
+        MvcResult result = mockMvc.perform(reqBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Check (page fields untouched)
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(user.getName()))
+                .andExpect(jsonPath("$.content[0].profile").value(user.getProfile()))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.content[0].email").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").value(page.getTotalPages()));
+    }
 }
@@ -0,0 +1,181 @@
+package com.creativedrive.user.persistence;
+
+import com.creativedrive.user.domain.FieldFilter;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.utils.FilterUtils;
+import com.mongodb.MongoException;
+import org.bson.Document;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Explain plan tests for supported searches, against a MongoDB server able to explain queries
+ * (skipped otherwise).
+ * <p>
+ * Winning plans must neither scan the collection nor sort in memory
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UserIndexTest {
+
+    private static final List<String> SORT_FIELDS = Arrays.asList("name", "email", "profile", "address", "phone");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private QueryMapper mapper;
+
+    private MongoPersistentEntity<?> entity;
+
+    @Before
+    public void beforeEach() {
+        mapper = new QueryMapper(mongoTemplate.getConverter());
+        entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(User.class);
+
+        // Explain support
+        try {
+            explain(new Query());
+        } catch (MongoException e) {
+            Assume.assumeNoException(e);
+        }
+    }
+
+    /**
+     * Test scenario for page searches sorted by a single field
+     */
+    @Test
+    public void itSortsByIndexes() {
+        for (String field : SORT_FIELDS) {
+            for (boolean asc : new boolean[]{true, false}) {
+                check(FilterUtils.buildQuery(filter(field, asc, null)));
+            }
+        }
+    }
+
+    /**
+     * Test scenario for page searches filtered by profile, sorted by a single field
+     */
+    @Test
+    public void itFiltersProfileAndSortsByIndexes() {
+        for (String field : SORT_FIELDS) {
+            for (boolean asc : new boolean[]{true, false}) {
+                check(FilterUtils.buildQuery(filter(field, asc, user -> user.setProfile("^USER$"))));
+                check(FilterUtils.buildQuery(filter(field, asc, user -> user.setProfile(UserProfile.ADMIN))));
+            }
+        }
+    }
+
+    /**
+     * Test scenario for first keyset pages (id tie breaker)
+     */
+    @Test
+    public void itPagesByIndexes() {
+        for (String field : SORT_FIELDS) {
+            for (boolean asc : new boolean[]{true, false}) {
+                UserFilter filter = filter(field, asc, null);
+                filter.setAfter("");
+                check(FilterUtils.buildKeysetQuery(filter, 10));
+
+                filter = filter(field, asc, user -> user.setProfile("^ADMIN$"));
+                filter.setAfter("");
+                check(FilterUtils.buildKeysetQuery(filter, 10));
+            }
+        }
+    }
+
+    /**
+     * Test scenario for name and email lookups
+     */
+    @Test
+    public void itLooksUpByIndexes() {
+        check(FilterUtils.buildQuery(filter("name", true, user -> user.setName("^user"))));
+        check(FilterUtils.buildQuery(filter("email", true, user -> user.setEmail("^user@email.com$"))));
+
+        for (String field : Arrays.asList("name", "email")) {
+            FieldFilter fieldFilter = new FieldFilter();
+            fieldFilter.setIgnoreCase(Boolean.TRUE);
+            fieldFilter.setPrefix("User");
+            UserFilter filter = new UserFilter();
+            filter.setWhere(Collections.singletonMap(field, fieldFilter));
+            check(FilterUtils.buildQuery(filter));
+        }
+    }
+
+    private static UserFilter filter(String sortField, boolean asc, Consumer<User> fields) {
+        UserFilter filter = new UserFilter();
+        if (fields != null) {
+            fields.accept(filter.getFields());
+        }
+        filter.setAsc(asc ? Collections.singleton(sortField) : Collections.emptySet());
+        filter.setDesc(asc ? Collections.emptySet() : Collections.singleton(sortField));
+        return filter;
+    }
+
+    private void check(Query query) {
+        Document plan = (Document) ((Document) explain(query).get("queryPlanner")).get("winningPlan");
+        String stage = findStage(plan);
+        if (stage != null) {
+            fail(stage + " on " + query + ": " + plan.toJson());
+        }
+    }
+
+    private Document explain(Query query) {
+        // Sort keys in order, as sent by template
+        Document sort = new Document();
+        query.getSortObject().forEach((key, direction) -> sort.put(FilterUtils.ID_FIELD.equals(key) ? "_id" : key,
+                direction));
+
+        Document find = new Document("find", mongoTemplate.getCollectionName(User.class))
+                .append("filter", mapper.getMappedObject(query.getQueryObject(), entity))
+                .append("sort", sort);
+        if (query.getLimit() > 0) {
+            find.append("limit", query.getLimit());
+        }
+        return mongoTemplate.getDb().runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * Find collection scans or blocking sorts on plan stages
+     */
+    @SuppressWarnings("unchecked")
+    private static String findStage(Document plan) {
+        String stage = plan.getString("stage");
+        if ("COLLSCAN".equals(stage) || "SORT".equals(stage)) {
+            return stage;
+        }
+
+        if (plan.get("inputStage") instanceof Document) {
+            String found = findStage((Document) plan.get("inputStage"));
+            if (found != null) {
+                return found;
+            }
+        }
+        if (plan.get("inputStages") instanceof List) {
+            for (Document input : (List<Document>) plan.get("inputStages")) {
+                String found = findStage(input);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}
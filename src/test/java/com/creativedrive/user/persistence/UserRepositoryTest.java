@@ -1,6 +1,10 @@
 package com.creativedrive.user.persistence;
 
+import com.creativedrive.user.domain.FieldFilter;
 import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.utils.FilterUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -8,7 +12,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -77,4 +89,273 @@ public class UserRepositoryTest {
         data = repository.checkAuth(user.getName(), "wrong");
         assertThat(data.isPresent(), is(false));
     }
+
+    /**
+     * Test findByNameIn query
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFindsByNames() throws Exception {
+        // Save arbitrary user
+        repository.save(user);
+
+        // Test found (unknown names ignored)
+        List<User> data = repository.findByNameIn(Arrays.asList(user.getName(), "who??"));
+        assertThat(data.size(), equalTo(1));
+        assertThat(data.get(0), equalTo(user));
+    }
+
+    /**
+     * Test findProjectedByName query
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFindsProjectedByName() throws Exception {
+        repository.save(user);
+
+        // Test (unselected fields are not read)
+        User data = repository.findProjectedByName(user.getName(), Collections.singleton("email")).get();
+        assertThat(data, equalTo(user));
+        assertThat(data.getEmail(), equalTo(user.getEmail()));
+        assertThat(data.getName(), equalTo(null));
+        assertThat(data.getPassword(), equalTo(null));
+    }
+
+    /**
+     * Test findByNames query
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFindsByNamesWithoutPassword() throws Exception {
+        repository.save(user);
+
+        // Test found (unknown names ignored)
+        List<User> data = repository.findByNames(Arrays.asList(user.getName(), "who??"));
+        assertThat(data.size(), equalTo(1));
+        assertThat(data.get(0), equalTo(user));
+        assertThat(data.get(0).getEmail(), equalTo(user.getEmail()));
+        assertThat(data.get(0).getPassword(), equalTo(null));
+    }
+
+    /**
+     * Test insertUnordered operation
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itInsertsUnordered() throws Exception {
+        User repeated = new User();
+        repeated.setEmail("other.email.com");
+        repeated.setName(user.getName());
+
+        User other = new User();
+        other.setEmail("another.email.com");
+        other.setName("another");
+
+        // Test (duplicate does not stop following users)
+        Set<Integer> duplicates = repository.insertUnordered(Arrays.asList(user, repeated, other));
+        assertThat(duplicates, equalTo(Collections.singleton(1)));
+        assertThat(repository.findByName("another").get(), equalTo(other));
+        assertThat(repository.count(), equalTo(2L));
+    }
+
+    /**
+     * Test updateIfMatch operation
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itUpdatesIfMatch() throws Exception {
+        repository.save(user);
+        assertThat(user.getVersion(), equalTo(0L));
+
+        // Test wrong id
+        User change = repository.findByName(user.getName()).get();
+        change.setEmail("changed.email.com");
+        change.setPassword("other_encrypted_password");
+        change.setId("xxxxx");
+        assertThat(repository.updateIfMatch(change).isPresent(), is(false));
+        change.setId(user.getId());
+        Optional<User> updated = repository.updateIfMatch(change);
+        assertThat(updated.get().getEmail(), equalTo("changed.email.com"));
+        assertThat(updated.get().getPassword(), equalTo("other_encrypted_password"));
+        assertThat(updated.get().getVersion(), equalTo(1L));
+
+        // Test stale version
+        change.setPhone("88889999");
+        assertThat(repository.updateIfMatch(change).isPresent(), is(false));
+        change.setVersion(1L);
+        updated = repository.updateIfMatch(change);
+        assertThat(updated.get().getPhone(), equalTo("88889999"));
+        assertThat(updated.get().getVersion(), equalTo(2L));
+    }
+
+    /**
+     * Test patch operation
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itPatchesFields() throws Exception {
+        user.setAddress("Street");
+        repository.save(user);
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("email", "Changed.Email.com");
+        fields.put("address", null);
+
+        // Test stale version
+        assertThat(repository.patch(user.getName(), 1L, fields).isPresent(), is(false));
+
+        // Test (untouched fields kept, hash not sent back)
+        User patched = repository.patch(user.getName(), 0L, fields).get();
+        assertThat(patched.getEmail(), equalTo("Changed.Email.com"));
+        assertThat(patched.getAddress(), equalTo(null));
+        assertThat(patched.getPassword(), equalTo(null));
+        assertThat(patched.getVersion(), equalTo(1L));
+
+        User stored = repository.findByName(user.getName()).get();
+        assertThat(stored.getPassword(), equalTo(user.getPassword()));
+        assertThat(stored.getEmailKey(), equalTo("changed.email.com"));
+    }
+
+    /**
+     * Test deleteByName query
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itDeletesByName() throws Exception {
+        repository.save(user);
+
+        // Test
+        assertThat(repository.deleteByName("who??"), equalTo(0L));
+        assertThat(repository.deleteByName(user.getName()), equalTo(1L));
+        assertThat(repository.count(), equalTo(0L));
+    }
+
+    /**
+     * Test findByQuery walking keyset pages
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFindsByKeysetQuery() throws Exception {
+        // Repeated and missing addresses, tie broken by id
+        for (int i = 0; i < 7; i++) {
+            User other = new User();
+            other.setName("user_" + i);
+            other.setEmail("user" + i + ".email.com");
+            other.setAddress(i % 3 == 0 ? null : "address" + (i % 2));
+            repository.save(other);
+        }
+
+        // Test (pages neither skip nor repeat users)
+        List<String> names = new ArrayList<>();
+        String after = "";
+        int pages = 0;
+        while (after != null) {
+            // Filters are locked once sanitized
+            UserFilter filter = new UserFilter();
+            filter.setSize(2);
+            filter.setDesc(Collections.singleton("address"));
+            filter.setAfter(after);
+
+            List<User> data = repository.findByQuery(FilterUtils.buildKeysetQuery(filter, filter.getSize()));
+            data.forEach(found -> names.add(found.getName()));
+            after = data.size() < filter.getSize() ? null
+                    : FilterUtils.buildNextToken(filter, data.get(data.size() - 1));
+            pages++;
+        }
+
+        assertThat(pages, equalTo(4));
+        assertThat(names.stream().collect(Collectors.joining(",")),
+                equalTo("user_5,user_1,user_4,user_2,user_6,user_3,user_0"));
+    }
+
+    /**
+     * Test findByQuery with compiled field filters
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFindsByFieldFilters() throws Exception {
+        for (String name : new String[]{"ann.a", "annie", "bob", "carl"}) {
+            User other = new User();
+            other.setName(name);
+            other.setEmail(name + "@email.com");
+            other.setPhone(name.startsWith("b") ? null : "99998888");
+            repository.save(other);
+        }
+
+        // Test (typed operators)
+        assertThat(names(where("name", "prefix", "ann.")), equalTo("ann.a"));
+        assertThat(names(where("name", "in", Arrays.asList("bob", "carl", "who??"))), equalTo("bob,carl"));
+        assertThat(names(where("name", "contains", "nn")), equalTo("ann.a,annie"));
+        assertThat(names(where("name", "gte", "b")), equalTo("bob,carl"));
+        assertThat(names(where("phone", "exists", false)), equalTo("bob"));
+
+        // Test (legacy regular expressions)
+        UserFilter filter = new UserFilter();
+        filter.getFields().setName("^ann");
+        filter.getFields().setEmail("e@");
+        filter.setAsc(Collections.singleton("name"));
+        assertThat(names(repository.findByQuery(FilterUtils.buildQuery(filter))), equalTo("annie"));
+    }
+
+    /**
+     * Test findByQuery with case insensitive filters
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itFindsIgnoringCase() throws Exception {
+        for (String name : new String[]{"Ann.A", "ANNIE", "bob"}) {
+            User other = new User();
+            other.setName(name);
+            other.setEmail(name + "@Email.com");
+            other.setAddress(name + " Street");
+            repository.save(other);
+        }
+
+        // Test (shadow fields)
+        Map<String, Object> operators = new HashMap<>();
+        operators.put("ignoreCase", true);
+        operators.put("eq", "annie");
+        assertThat(names(where("name", operators)), equalTo("ANNIE"));
+
+        operators.remove("eq");
+        operators.put("prefix", "ann.");
+        assertThat(names(where("name", operators)), equalTo("Ann.A"));
+        assertThat(names(where("email", operators)), equalTo("Ann.A"));
+
+        // Test (other fields, regular expression option)
+        operators.put("prefix", "BOB street");
+        assertThat(names(where("address", operators)), equalTo("bob"));
+
+        // Test (legacy regular expressions)
+        UserFilter filter = new UserFilter();
+        filter.getFields().setName("(?i)^ann");
+        filter.setAsc(Collections.singleton("name"));
+        assertThat(names(repository.findByQuery(FilterUtils.buildQuery(filter))), equalTo("ANNIE,Ann.A"));
+    }
+
+    private List<User> where(String field, String operator, Object value) {
+        return where(field, Collections.singletonMap(operator, value));
+    }
+
+    private List<User> where(String field, Map<String, Object> operators) {
+        UserFilter filter = new UserFilter();
+        filter.setWhere(Collections.singletonMap(field,
+                new ObjectMapper().convertValue(operators, FieldFilter.class)));
+        filter.setAsc(Collections.singleton("name"));
+        return repository.findByQuery(FilterUtils.buildQuery(filter));
+    }
+
+    private static String names(List<User> users) {
+        return users.stream().map(User::getName).collect(Collectors.joining(","));
+    }
 }
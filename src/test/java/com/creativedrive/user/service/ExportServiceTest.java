@@ -0,0 +1,97 @@
+package com.creativedrive.user.service;
+
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserFilter;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.persistence.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for {@link ExportService}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ExportServiceTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Before
+    public void beforeEach() {
+        // Clear database
+        repository.deleteAll();
+
+        // Fixtures
+        for (String name : new String[]{"user_b", "user_a", "admin"}) {
+            User user = new User();
+            user.setName(name);
+            user.setEmail(name + "@email.com");
+            user.setPassword("hashed_password");
+            user.setProfile(name.startsWith("user") ? UserProfile.USER : UserProfile.ADMIN);
+            user.setAddress("Street 1, \"A\"");
+            repository.save(user);
+        }
+    }
+
+    /**
+     * Test scenario for NDJSON export
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itExportsNdjson() throws Exception {
+        UserFilter filter = new UserFilter();
+        filter.getFields().setProfile("USER");
+        filter.setAsc(Collections.singleton("name"));
+
+        // Test
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportUsers(filter, ExportService.Format.NDJSON, output);
+        String[] lines = output.toString("UTF-8").split("\n");
+
+        assertThat(lines.length, equalTo(2));
+        assertThat(lines[0], containsString("\"name\":\"user_a\""));
+        assertThat(lines[1], containsString("\"name\":\"user_b\""));
+        assertThat(output.toString("UTF-8"), not(containsString("password")));
+    }
+
+    /**
+     * Test scenario for CSV export
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itExportsCsv() throws Exception {
+        UserFilter filter = new UserFilter();
+        filter.getFields().setName("^admin$");
+
+        // Test
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.exportUsers(filter, ExportService.Format.CSV, output);
+        String[] lines = output.toString("UTF-8").split("\r\n");
+
+        assertThat(lines.length, equalTo(2));
+        assertThat(lines[0], equalTo("id,profile,name,email,address,phone"));
+        assertThat(lines[1], containsString(",ADMIN,admin,admin@email.com,\"Street 1, \"\"A\"\"\","));
+        assertThat(output.toString("UTF-8"), not(containsString("hashed_password")));
+    }
+}
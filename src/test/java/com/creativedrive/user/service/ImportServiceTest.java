@@ -0,0 +1,150 @@
+package com.creativedrive.user.service;
+
+import com.creativedrive.user.domain.BulkInsertException;
+import com.creativedrive.user.domain.UserProfile;
+import com.creativedrive.user.persistence.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jasypt.util.password.PasswordEncryptor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link ImportService}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"app.config.import.batch=2", "app.config.import.window=1",
+        "app.config.import.line=200"})
+public class ImportServiceTest {
+
+    @MockBean
+    private UserRepository mockRepo;
+
+    @MockBean
+    private PasswordEncryptor mockEncryptor;
+
+    @Autowired
+    private ImportService importService;
+
+    /**
+     * Test scenario for users import
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itImportsUsers() throws Exception {
+        String input = line("user_a") + "\n"
+                + "{ not json\n"
+                + "\n"
+                + "{\"name\":\"invalid\"}\n"
+                + line("user_b") + "\n"
+                + line("user_c");
+
+        // Mock behaviours (second user of first batch is a duplicate)
+        when(mockEncryptor.encryptPassword(anyString())).thenReturn("encrypted_password");
+        doReturn(Collections.singleton(1)).doReturn(Collections.emptySet()).when(mockRepo).insertUnordered(anyList());
+
+        // Test
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        importService.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<JsonNode> lines = new ArrayList<>();
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : output.toString("UTF-8").split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+
+        // Parse error, validation error, duplicate
+        assertThat(lines.get(0).get("line").asInt(), equalTo(2));
+        assertThat(lines.get(1).get("line").asInt(), equalTo(4));
+        assertThat(lines.get(2).get("line").asInt(), equalTo(5));
+        assertThat(lines.get(2).get("type").asText(), equalTo("error"));
+
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertThat(summary.get("type").asText(), equalTo("summary"));
+        assertThat(summary.get("lines").asInt(), equalTo(6));
+        assertThat(summary.get("created").asInt(), equalTo(2));
+        assertThat(summary.get("duplicates").asInt(), equalTo(1));
+        assertThat(summary.get("invalid").asInt(), equalTo(2));
+
+        // Check mock iteration
+        verify(mockRepo, times(2)).insertUnordered(anyList());
+        verify(mockRepo, never()).findByName(anyString());
+    }
+
+    /**
+     * Test scenario for users import with long lines and users failing on insert
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itImportsUsersWithPartialFailures() throws Exception {
+        String input = line("user_a") + "\n"
+                + line("user_b") + "\n"
+                + "{\"name\":\"" + String.join("", Collections.nCopies(300, "x")) + "\"}\n"
+                + line("user_d") + " {\n"
+                + line("user_c") + "\n";
+
+        // Mock behaviours (second user of first batch fails)
+        when(mockEncryptor.encryptPassword(anyString())).thenReturn("encrypted_password");
+        doThrow(new BulkInsertException("Unable to insert 1 users", Collections.emptySet(),
+                Collections.singletonMap(1, new DataIntegrityViolationException("Document failed validation"))))
+                .doReturn(Collections.emptySet()).when(mockRepo).insertUnordered(anyList());
+
+        // Test
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        importService.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+
+        Map<Integer, String> errors = new HashMap<>();
+        JsonNode summary = null;
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : output.toString("UTF-8").split("\n")) {
+            JsonNode node = mapper.readTree(line);
+            if ("error".equals(node.get("type").asText())) {
+                errors.put(node.get("line").asInt(), node.get("messages").get(0).asText());
+            } else if ("summary".equals(node.get("type").asText())) {
+                summary = node;
+            }
+        }
+
+        // Failed insert, long line, trailing content
+        assertThat(errors.size(), equalTo(3));
+        assertThat(errors.get(2), equalTo("Unable to store user"));
+        assertThat(errors.get(3), equalTo("Line is too long"));
+        assertThat(errors.get(4), equalTo("Line is not a valid user JSON"));
+
+        assertThat(summary.get("lines").asInt(), equalTo(5));
+        assertThat(summary.get("created").asInt(), equalTo(2));
+        assertThat(summary.get("failed").asInt(), equalTo(1));
+        assertThat(summary.get("invalid").asInt(), equalTo(2));
+
+        // Check mock iteration
+        verify(mockRepo, times(2)).insertUnordered(anyList());
+    }
+
+    private static String line(String name) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + name + "@email.com\",\"password\":\"pwd123\","
+                + "\"profile\":\"USER\"}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.creativedrive.user.service;
 
+import com.creativedrive.user.component.AuthCache;
 import com.creativedrive.user.domain.User;
 import com.creativedrive.user.persistence.UserRepository;
 import org.jasypt.util.password.PasswordEncryptor;
@@ -12,9 +13,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -34,6 +38,9 @@ public class LoginServiceTest {
     @Autowired
     private LoginService loginService;
 
+    @Autowired
+    private AuthCache authCache;
+
     private User user;
 
     @Before
@@ -50,6 +57,9 @@ public class LoginServiceTest {
         // Reset mocks
         reset(mockRepo);
         reset(mockEncryptor);
+
+        // Reset cache
+        authCache.clear();
     }
 
 
@@ -94,4 +104,91 @@ public class LoginServiceTest {
         verify(mockEncryptor).encryptPassword(user.getPassword());
         verify(mockRepo).checkAuth(user.getName(), "encrypted_password");
     }
+
+    /**
+     * Test scenario for cached valid authentication
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itCachesValidAuth() throws Exception {
+        // Mock behaviours
+        when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("encrypted_password");
+        when(mockRepo.checkAuth(user.getName(), "encrypted_password")).thenReturn(Optional.of(user));
+
+        // Test
+        loginService.checkAuth(user.getName(), user.getPassword());
+        Optional<User> data = loginService.checkAuth(user.getName(), user.getPassword());
+        assertThat(data.isPresent(), is(true));
+        assertThat(data.get().getProfile(), equalTo(user.getProfile()));
+        assertThat(data.get().getPassword(), is(nullValue()));
+
+        // Wrong password must not match cached credentials
+        data = loginService.checkAuth(user.getName(), "wrong");
+        assertThat(data.isPresent(), is(false));
+
+        // Check mock iteration
+        verify(mockEncryptor, times(1)).encryptPassword(user.getPassword());
+        verify(mockRepo, times(1)).checkAuth(user.getName(), "encrypted_password");
+    }
+
+    /**
+     * Test scenario for evicted authentication
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itEvictsCachedAuth() throws Exception {
+        // Mock behaviours
+        when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("encrypted_password");
+        when(mockRepo.checkAuth(user.getName(), "encrypted_password")).thenReturn(Optional.of(user));
+
+        // Test
+        loginService.checkAuth(user.getName(), user.getPassword());
+        authCache.evict(user.getName());
+        when(mockRepo.checkAuth(user.getName(), "encrypted_password")).thenReturn(Optional.empty());
+        Optional<User> data = loginService.checkAuth(user.getName(), user.getPassword());
+        assertThat(data.isPresent(), is(false));
+
+        // Check mock iteration
+        verify(mockRepo, times(2)).checkAuth(user.getName(), "encrypted_password");
+    }
+
+    /**
+     * Test scenario for concurrent identical authentications
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itCollapsesConcurrentAuth() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Mock behaviours (leader blocks while hashing)
+        when(mockEncryptor.encryptPassword(user.getPassword())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return "encrypted_password";
+        });
+        when(mockRepo.checkAuth(user.getName(), "encrypted_password")).thenReturn(Optional.of(user));
+
+        // Test
+        long collapsed = loginService.getCollapsed();
+        CompletableFuture<Optional<User>> leader = CompletableFuture.supplyAsync(
+                () -> loginService.checkAuth(user.getName(), user.getPassword()));
+        entered.await();
+        CompletableFuture<Optional<User>> follower = CompletableFuture.supplyAsync(
+                () -> loginService.checkAuth(user.getName(), user.getPassword()));
+        while (loginService.getCollapsed() == collapsed) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(leader.get().isPresent(), is(true));
+        assertThat(follower.get().isPresent(), is(true));
+
+        // Check mock iteration
+        verify(mockEncryptor, times(1)).encryptPassword(user.getPassword());
+        verify(mockRepo, times(1)).checkAuth(user.getName(), "encrypted_password");
+    }
 }
@@ -0,0 +1,80 @@
+package com.creativedrive.user.service;
+
+import com.creativedrive.user.domain.AccessToken;
+import com.creativedrive.user.domain.User;
+import com.creativedrive.user.domain.UserProfile;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Optional;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for {@link TokenService}
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class TokenServiceTest {
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Test scenario for valid token
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itVerifiesIssuedTokens() throws Exception {
+        // Test
+        AccessToken token = tokenService.issue("token_user", UserProfile.ADMIN);
+        Optional<User> data = tokenService.verify(token.getToken());
+        assertThat(data.isPresent(), is(true));
+        assertThat(data.get().getName(), equalTo("token_user"));
+        assertThat(data.get().getProfile(), equalTo(UserProfile.ADMIN));
+    }
+
+    /**
+     * Test scenario for tampered token
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itRejectsTamperedTokens() throws Exception {
+        // Fixtures
+        AccessToken token = tokenService.issue("token_user", UserProfile.USER);
+        AccessToken other = tokenService.issue("token_admin", UserProfile.ADMIN);
+        String payload = other.getToken().substring(0, other.getToken().indexOf('.'));
+        String signature = token.getToken().substring(token.getToken().indexOf('.'));
+
+        // Test
+        assertThat(tokenService.verify(payload + signature).isPresent(), is(false));
+        assertThat(tokenService.verify("garbage").isPresent(), is(false));
+        assertThat(tokenService.verify("x.%%%").isPresent(), is(false));
+    }
+
+    /**
+     * Test scenario for revoked token
+     *
+     * @throws Exception
+     */
+    @Test
+    public void itRejectsRevokedTokens() throws Exception {
+        // Fixtures
+        AccessToken token = tokenService.issue("revoked_user", UserProfile.USER);
+
+        // Test
+        tokenService.revoke("revoked_user");
+        assertThat(tokenService.verify(token.getToken()).isPresent(), is(false));
+
+        // New tokens are accepted
+        token = tokenService.issue("revoked_user", UserProfile.USER);
+        assertThat(tokenService.verify(token.getToken()).isPresent(), is(true));
+    }
+}
@@ -1,5 +1,7 @@
 package com.creativedrive.user.service;
 
+import com.creativedrive.user.component.CountCache;
+import com.creativedrive.user.component.UserCache;
 import com.creativedrive.user.domain.*;
 import com.creativedrive.user.persistence.UserRepository;
 import org.jasypt.util.password.PasswordEncryptor;
@@ -11,17 +13,30 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +56,12 @@ public class UserServiceTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private CountCache countCache;
+
     private User user;
 
     @Before
@@ -56,6 +77,9 @@ public class UserServiceTest {
         // Reset mocks
         reset(mockRepo);
         reset(mockEncryptor);
+
+        // Reset cache
+        userCache.clear();
     }
 
     /**
@@ -68,19 +92,54 @@ public class UserServiceTest {
     public void itCreatesUsers() throws Exception {
         // Mock behaviours
         when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("encrypted_password");
-        when(mockRepo.findByName(user.getName())).thenReturn(Optional.empty());
         when(mockRepo.save(user)).thenReturn(user);
 
         // Test
         userService.create(user).get();
         assertThat(user.getPassword(), equalTo("encrypted_password"));
 
-        // Check mock iteration
+        // Check mock iteration (no lookups)
         verify(mockEncryptor).encryptPassword("password");
-        verify(mockRepo).findByName(user.getName());
+        verify(mockRepo, never()).findByName(anyString());
         verify(mockRepo).save(user);
     }
 
+    /**
+     * Test scenario where users are created in bulk
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itCreatesUsersInBulk() throws Exception {
+        user.setProfile(UserProfile.USER);
+        user.setVersion(42L);
+
+        User invalidUser = new User();
+        invalidUser.setName("invalid");
+
+        User repeatedUser = new User();
+        BeanUtils.copyProperties(user, repeatedUser);
+        repeatedUser.setName("repeated");
+
+        // Mock behaviours (second valid user is a duplicate)
+        when(mockEncryptor.encryptPassword("password")).thenReturn("encrypted_password");
+        when(mockRepo.insertUnordered(anyList())).thenReturn(Collections.singleton(1));
+
+        // Test
+        List<UserBulkResult> results = userService.createAll(Arrays.asList(user, invalidUser, repeatedUser)).get();
+        assertThat(results.get(0).getStatus(), equalTo(UserBulkResult.Status.CREATED));
+        assertThat(results.get(1).getStatus(), equalTo(UserBulkResult.Status.INVALID));
+        assertThat(results.get(2).getStatus(), equalTo(UserBulkResult.Status.DUPLICATE));
+        assertThat(user.getPassword(), equalTo("encrypted_password"));
+        assertThat(user.getVersion(), nullValue());
+
+        // Check mock iteration (no lookups)
+        verify(mockEncryptor, times(2)).encryptPassword("password");
+        verify(mockRepo).insertUnordered(Arrays.asList(user, repeatedUser));
+        verify(mockRepo, never()).findByName(anyString());
+    }
+
     /**
      * Test scenario where a user that already exists is sent to create
      *
@@ -91,15 +150,14 @@ public class UserServiceTest {
     public void itDeniesCreateIfUserRepeated() throws Exception {
         // Mock behaviours
         when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("encrypted_password");
-        when(mockRepo.findByName(user.getName())).thenReturn(Optional.of(user));
+        when(mockRepo.save(user)).thenThrow(new DuplicateKeyException("E11000"));
 
         // Test (must throw exception)
         try {
             userService.create(user).get();
-        } catch (Exception e) {
-            if (!(e.getCause() instanceof UserException)) {
-                Assert.fail();
-            }
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.CREATE_ERROR));
         }
     }
 
@@ -122,6 +180,98 @@ public class UserServiceTest {
         verify(mockRepo, only()).findByName(user.getName());
     }
 
+    /**
+     * Test scenario where user is retrieved from cache until changed
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itRetrievesCachedUsers() throws Exception {
+        User storedUser = new User();
+        BeanUtils.copyProperties(user, storedUser);
+
+        // Mock behaviours
+        when(mockRepo.findByName(user.getName())).thenReturn(Optional.of(storedUser));
+        when(mockRepo.updateIfMatch(user)).thenReturn(Optional.of(storedUser));
+
+        // Test
+        userService.retrieve(user.getName()).get();
+        userService.retrieve(user.getName()).get();
+        verify(mockRepo, times(1)).findByName(user.getName());
+
+        // Update invalidates
+        userService.update(user).get();
+        userService.retrieve(user.getName()).get();
+        verify(mockRepo, times(2)).findByName(user.getName());
+    }
+
+    /**
+     * Test scenario where selected fields of not cached user are retrieved
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itRetrievesSelectedFields() throws Exception {
+        Set<String> fields = new HashSet<>(Arrays.asList("name", "profile"));
+
+        // Mock behaviours
+        when(mockRepo.findProjectedByName(user.getName(), fields)).thenReturn(Optional.of(user));
+
+        // Test
+        User result = userService.retrieve(user.getName(), fields).get();
+        assertThat(result, equalTo(user));
+
+        // Test (must throw exception)
+        try {
+            userService.retrieve(user.getName(), Collections.singleton("nameKey")).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.CONSTRAINT_ERROR));
+        }
+
+        // Test (password hash is not selectable)
+        try {
+            userService.retrieve(user.getName(), new HashSet<>(Arrays.asList("name", "password"))).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.CONSTRAINT_ERROR));
+        }
+
+        // Check mock iteration
+        verify(mockRepo, only()).findProjectedByName(user.getName(), fields);
+    }
+
+    /**
+     * Test scenario where users are retrieved by names, cached ones first
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.USER})
+    public void itRetrievesUsersByNames() throws Exception {
+        User other = new User();
+        other.setId("222");
+        other.setName("other");
+
+        // Mock behaviours
+        when(mockRepo.findByName(user.getName())).thenReturn(Optional.of(user));
+        when(mockRepo.findByNames(anyCollection())).thenReturn(Collections.singletonList(other));
+
+        // Test (cached user, fetched user and miss, in request order)
+        userService.retrieve(user.getName()).get();
+        List<UserLookupResult> results = userService.retrieveAll(Arrays.asList("other", "user", "ghost")).get();
+        assertThat(results.get(0).getUser(), equalTo(other));
+        assertThat(results.get(1).getUser(), equalTo(user));
+        assertThat(results.get(1).getUser().getPassword(), equalTo(null));
+        assertThat(results.get(2).getName(), equalTo("ghost"));
+        assertThat(results.get(2).isFound(), equalTo(false));
+
+        // Check mock iteration (cached user not fetched again)
+        verify(mockRepo).findByNames(argThat(names -> names.size() == 2 && !names.contains("user")));
+    }
+
     /**
      * Test scenario where user is retrieved but not exists
      *
@@ -144,77 +294,178 @@ public class UserServiceTest {
     }
 
     /**
-     * Test scenario where user password is not changed
+     * Test scenario where user password is encrypted and written with a single conditional write
      *
      * @throws Exception
      */
     @Test
     @WithMockUser(authorities = {UserProfile.ADMIN})
-    public void itUpdatesUsersKeepingCurrentPassword() throws Exception {
+    public void itUpdatesUsersEncryptingPassword() throws Exception {
         User storedUser = new User();
         BeanUtils.copyProperties(user, storedUser);
+        storedUser.setPassword("other_encrypted_password");
+        storedUser.setVersion(1L);
 
         // Mock behaviours
         when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("other_encrypted_password");
-        when(mockRepo.findByName("user")).thenReturn(Optional.of(storedUser));
-        when(mockRepo.save(user)).thenReturn(user);
+        when(mockRepo.updateIfMatch(user)).thenReturn(Optional.of(storedUser));
 
         // Test
-        userService.update(user).get();
+        User result = userService.update(user).get();
+        assertThat(user.getPassword(), equalTo("other_encrypted_password"));
+        assertThat(result.getVersion(), equalTo(1L));
 
-        // Check mock iteration
-        verify(mockEncryptor, never()).encryptPassword(anyString());
-        verify(mockRepo).save(user);
+        // Check mock iteration (single write, no lookups)
+        verify(mockEncryptor, times(1)).encryptPassword("password");
+        verify(mockRepo, only()).updateIfMatch(user);
     }
 
     /**
-     * Test scenario where user password is changed
-     *
-     * @throws Exception
+     * Test scenario where user id not matches provided user
      */
     @Test
     @WithMockUser(authorities = {UserProfile.ADMIN})
-    public void itUpdatesUsersEncryptingNewPassword() throws Exception {
+    public void itDeniesUpdateIfUserIdNotValid() throws Exception {
         User storedUser = new User();
         BeanUtils.copyProperties(user, storedUser);
-        storedUser.setPassword("encrypted_password");
-
-        // Mock behaviours
-        when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("other_encrypted_password");
-        when(mockRepo.findByName("user")).thenReturn(Optional.of(storedUser));
-        when(mockRepo.save(user)).thenReturn(user);
+        storedUser.setId("xxxxx");
 
-        // Test
-        userService.update(user).get();
+        //  Mock behaviours
+        when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("encrypted_password");
+        when(mockRepo.updateIfMatch(user)).thenReturn(Optional.empty());
+        when(mockRepo.findProjectedByName(eq("user"), anyCollection())).thenReturn(Optional.of(storedUser));
 
-        // Check mock iteration
-        verify(mockEncryptor).encryptPassword("password");
-        verify(mockRepo).save(user);
+        // Test (must throw exception)
+        try {
+            userService.update(user).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.UPDATE_ERROR));
+        }
     }
 
     /**
-     * Test scenario where user id not matches provided user
+     * Test scenario where user has been changed since retrieved
      */
     @Test
     @WithMockUser(authorities = {UserProfile.ADMIN})
-    public void itDeniesUpdateIfUserIdNotValid() {
+    public void itDeniesUpdateIfVersionStale() throws Exception {
         User storedUser = new User();
         BeanUtils.copyProperties(user, storedUser);
-        storedUser.setId("xxxxx");
+        storedUser.setVersion(2L);
+        user.setVersion(1L);
 
         //  Mock behaviours
-        when(mockRepo.findByName("user")).thenReturn(Optional.of(storedUser));
+        when(mockEncryptor.encryptPassword(user.getPassword())).thenReturn("encrypted_password");
+        when(mockRepo.updateIfMatch(user)).thenReturn(Optional.empty());
+        when(mockRepo.findProjectedByName(eq("user"), anyCollection())).thenReturn(Optional.of(storedUser));
 
         // Test (must throw exception)
         try {
             userService.update(user).get();
-        } catch (Exception e) {
-            if (!(e.getCause() instanceof UserException)) {
-                Assert.fail();
-            }
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.CONFLICT_ERROR));
         }
     }
 
+    /**
+     * Test scenario where only informed fields are patched
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itPatchesUsers() throws Exception {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("phone", "77776666");
+        changes.put("address", null);
+        changes.put("version", 3);
+
+        // Mock behaviours
+        when(mockRepo.patch(eq("user"), eq(3L), anyMap())).thenReturn(Optional.of(user));
+
+        // Test
+        userService.patch("user", changes).get();
+
+        // Check mock iteration (password untouched)
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("phone", "77776666");
+        fields.put("address", null);
+        verify(mockEncryptor, never()).encryptPassword(anyString());
+        verify(mockRepo, only()).patch("user", 3L, fields);
+    }
+
+    /**
+     * Test scenario where patched password is encrypted
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itPatchesUsersEncryptingPassword() throws Exception {
+        // Mock behaviours
+        when(mockEncryptor.encryptPassword("new_password")).thenReturn("encrypted_password");
+        when(mockRepo.patch(eq("user"), isNull(), anyMap())).thenReturn(Optional.of(user));
+
+        // Test
+        userService.patch("user", Collections.singletonMap("password", "new_password")).get();
+
+        // Check mock iteration
+        verify(mockRepo).patch("user", null, Collections.singletonMap("password", "encrypted_password"));
+    }
+
+    /**
+     * Test scenario where patch has not valid or not allowed fields
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itDeniesPatchIfFieldNotValid() throws Exception {
+        // Test (must throw exception)
+        try {
+            userService.patch("user", Collections.singletonMap("phone", "not a phone")).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.CONSTRAINT_ERROR));
+        }
+        try {
+            userService.patch("user", Collections.singletonMap("name", "other")).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.UPDATE_ERROR));
+        }
+
+        // Check mock iteration
+        verifyZeroInteractions(mockRepo);
+    }
+
+    /**
+     * Test scenario for user search reading selected fields only
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itSearchesSelectedFields() throws Exception {
+        UserFilter filter = new UserFilter();
+        filter.setSelect(Collections.singleton("profile"));
+        filter.setAsc(Collections.singleton("address"));
+        filter.setDesc(Collections.emptySet());
+        filter.setAfter("");
+
+        // Mock behaviours
+        when(mockRepo.findByQuery(any(Query.class))).thenReturn(Collections.singletonList(user));
+
+        // Test
+        userService.findUsers(filter).get();
+
+        // Check mock iteration (sort fields feed continuation tokens)
+        verify(mockRepo).findByQuery(argThat(query -> query.getFieldsObject().keySet()
+                .equals(new HashSet<>(Arrays.asList("profile", "address", "id")))));
+    }
+
     /**
      * Test scenario where user is deleted by other user
      *
@@ -223,17 +474,14 @@ public class UserServiceTest {
     @Test
     @WithMockUser(value = "root", authorities = {UserProfile.ADMIN})
     public void itDeletesUsers() throws Exception {
-        User storedUser = new User();
-        BeanUtils.copyProperties(user, storedUser);
-
         //  Mock behaviours
-        when(mockRepo.findByName("user")).thenReturn(Optional.of(storedUser));
+        when(mockRepo.deleteByName("user")).thenReturn(1L);
 
         // Test
         userService.delete("user").get();
 
-        // Check mock iteration
-        verify(mockRepo).delete(user);
+        // Check mock iteration (single write)
+        verify(mockRepo, only()).deleteByName("user");
     }
 
     /**
@@ -244,12 +492,6 @@ public class UserServiceTest {
     @Test(expected = AccessDeniedException.class)
     @WithMockUser(authorities = {UserProfile.ADMIN})
     public void itDeniesDeleteIfSelfDelete() throws Exception {
-        User storedUser = new User();
-        BeanUtils.copyProperties(user, storedUser);
-
-        //  Mock behaviours
-        when(mockRepo.findByName("user")).thenReturn(Optional.of(storedUser));
-
         // Test (must throw exception)
         userService.delete("user").get();
     }
@@ -268,7 +510,7 @@ public class UserServiceTest {
         filter.setPage(2);
         filter.setSize(12);
         filter.setFields(user);
-        PageRequest reqPage = PageRequest.of(filter.getPage(), filter.getSize(), Sort.unsorted());
+        PageRequest reqPage = PageRequest.of(filter.getPage(), filter.getSize());
 
         // Output fixtures
         List<User> content = new ArrayList<>();
@@ -276,7 +518,7 @@ public class UserServiceTest {
         Page page = new PageImpl(content, reqPage, 1);
 
         //  Mock behaviours
-        when(mockRepo.findAll(any(Example.class), eq(reqPage))).thenReturn(page);
+        when(mockRepo.findPage(any(Query.class), eq(reqPage))).thenReturn(page);
 
         // Test
         UserPage result = userService.findUsers(filter).get();
@@ -285,6 +527,124 @@ public class UserServiceTest {
         assertThat(result.getTotalPages(), equalTo(page.getTotalPages()));
 
         // Check mock iteration
-        verify(mockRepo).findAll(any(Example.class), eq(reqPage));
+        verify(mockRepo).findPage(any(Query.class), eq(reqPage));
+    }
+
+    /**
+     * Test scenario where users are searched by continuation token
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itSearchesUsersAfter() throws Exception {
+        // Input fixtures
+        UserFilter filter = new UserFilter();
+        filter.setSize(2);
+        filter.setAfter("");
+
+        // Output fixtures (one extra user)
+        List<User> content = new ArrayList<>(Arrays.asList(user, user, user));
+
+        //  Mock behaviours
+        when(mockRepo.findByQuery(any())).thenReturn(content);
+
+        // Test
+        UserPage result = userService.findUsers(filter).get();
+        assertThat(result.getContent().size(), equalTo(2));
+        assertThat(result.getNumber(), equalTo(null));
+        assertThat(result.getNext() != null, equalTo(true));
+
+        // Test (token from another sort must throw exception)
+        UserFilter other = new UserFilter();
+        other.setAfter(result.getNext());
+        other.setAsc(Collections.singleton("name"));
+        try {
+            userService.findUsers(other).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            assertThat(((UserException) e.getCause()).getError(), equalTo(CrudError.CONSTRAINT_ERROR));
+        }
+
+        // Check mock iteration
+        verify(mockRepo, times(1)).findByQuery(any());
+    }
+
+    /**
+     * Test scenario where users are searched without exact counts
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itSearchesUsersWithoutCounting() throws Exception {
+        countCache.clear();
+
+        // Input fixtures
+        UserFilter filter = new UserFilter();
+        filter.setSize(2);
+        filter.setCount(UserFilter.Count.NONE);
+
+        // Output fixtures (one extra user)
+        List<User> content = new ArrayList<>(Arrays.asList(user, user, user));
+
+        //  Mock behaviours
+        when(mockRepo.findByQuery(any())).thenReturn(content);
+        when(mockRepo.countByQuery(any())).thenReturn(25L);
+
+        // Test (no totals)
+        UserPage result = userService.findUsers(filter).get();
+        assertThat(result.getContent().size(), equalTo(2));
+        assertThat(result.getHasNext(), equalTo(true));
+        assertThat(result.getTotalPages(), equalTo(null));
+
+        // Test (cached totals)
+        for (int i = 0; i < 2; i++) {
+            filter = new UserFilter();
+            filter.setSize(2);
+            filter.setCount(UserFilter.Count.ESTIMATED);
+            result = userService.findUsers(filter).get();
+            assertThat(result.getTotalPages(), equalTo(13));
+            assertThat(result.isEstimated(), equalTo(true));
+        }
+
+        // Check mock iteration
+        verify(mockRepo, times(3)).findByQuery(any());
+        verify(mockRepo, times(1)).countByQuery(any());
+    }
+
+    /**
+     * Test scenario where identical concurrent searches share a single one
+     *
+     * @throws Exception
+     */
+    @Test
+    @WithMockUser(authorities = {UserProfile.ADMIN})
+    public void itCoalescesSearches() throws Exception {
+        // Output fixtures
+        PageRequest reqPage = PageRequest.of(0, 10);
+        Page page = new PageImpl(Collections.singletonList(user), reqPage, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        //  Mock behaviours (first search held)
+        when(mockRepo.findPage(any(Query.class), eq(reqPage))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return page;
+        });
+
+        // Test
+        UserFilter filter = new UserFilter();
+        filter.getFields().setName("^coalesced");
+        UserFilter same = new UserFilter();
+        same.getFields().setName("^coalesced");
+
+        CompletableFuture<UserPage> first = userService.findUsers(filter);
+        CompletableFuture<UserPage> second = userService.findUsers(same);
+        release.countDown();
+        assertThat(first.get().getContent(), hasItem(user));
+        assertThat(second.get().getContent(), hasItem(user));
+
+        // Check mock iteration
+        verify(mockRepo, times(1)).findPage(any(Query.class), eq(reqPage));
     }
-}
\ No newline at end of file
+}